@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { Container, Row, Col, Card } from 'react-bootstrap';
+import { Container, Row, Col, Card, Table } from 'react-bootstrap';
 import { adminService } from '../../services/adminService';
 import LoadingSpinner from '../common/LoadingSpinner';
 
@@ -7,7 +7,11 @@ const AdminDashboard = () => {
     const [stats, setStats] = useState({
         totalVendors: 0,
         totalShopkeepers: 0,
-        totalOrders: 0
+        totalOrders: 0,
+        gmv: 0,
+        ordersToday: 0,
+        activeVendors: 0,
+        topCategories: []
     });
     const [loading, setLoading] = useState(true);
 
@@ -78,6 +82,74 @@ const AdminDashboard = () => {
                 </Col>
             </Row>
 
+            <Row>
+                <Col md={4}>
+                    <Card className="text-center shadow-sm mb-3">
+                        <Card.Body>
+                            <div className="display-6 text-info">
+                                ₹{Number(stats.gmv || 0).toLocaleString('en-IN')}
+                            </div>
+                            <h5 className="mt-2">GMV</h5>
+                            <p className="text-muted">Value of all non-cancelled orders</p>
+                        </Card.Body>
+                    </Card>
+                </Col>
+
+                <Col md={4}>
+                    <Card className="text-center shadow-sm mb-3">
+                        <Card.Body>
+                            <div className="display-6 text-primary">
+                                {stats.ordersToday}
+                            </div>
+                            <h5 className="mt-2">Orders Today</h5>
+                            <p className="text-muted">Placed since midnight</p>
+                        </Card.Body>
+                    </Card>
+                </Col>
+
+                <Col md={4}>
+                    <Card className="text-center shadow-sm mb-3">
+                        <Card.Body>
+                            <div className="display-6 text-success">
+                                {stats.activeVendors}
+                            </div>
+                            <h5 className="mt-2">Active Vendors</h5>
+                            <p className="text-muted">With orders in the last 30 days</p>
+                        </Card.Body>
+                    </Card>
+                </Col>
+            </Row>
+
+            {stats.topCategories && stats.topCategories.length > 0 && (
+                <Row className="mt-2">
+                    <Col>
+                        <Card className="shadow-sm">
+                            <Card.Body>
+                                <h5>Top Categories (last 30 days)</h5>
+                                <Table size="sm" className="mb-0">
+                                    <thead>
+                                        <tr>
+                                            <th>Category</th>
+                                            <th className="text-end">Units Sold</th>
+                                            <th className="text-end">Revenue</th>
+                                        </tr>
+                                    </thead>
+                                    <tbody>
+                                        {stats.topCategories.map(category => (
+                                            <tr key={category.categoryId}>
+                                                <td>{category.categoryName}</td>
+                                                <td className="text-end">{category.unitsSold}</td>
+                                                <td className="text-end">₹{Number(category.revenue).toLocaleString('en-IN')}</td>
+                                            </tr>
+                                        ))}
+                                    </tbody>
+                                </Table>
+                            </Card.Body>
+                        </Card>
+                    </Col>
+                </Row>
+            )}
+
             <Row className="mt-4">
                 <Col>
                     <Card className="shadow-sm">
@@ -18,6 +18,7 @@ const Chat = () => {
   const [message, setMessage] = useState('');
   const [chats, setChats] = useState([]);
   const [messages, setMessages] = useState([]);
+  const [olderCursor, setOlderCursor] = useState(null);
   // Invoice State
   const [showInvoiceModal, setShowInvoiceModal] = useState(false);
   const [invoiceAmount, setInvoiceAmount] = useState('');
@@ -119,13 +120,27 @@ const Chat = () => {
 
   const fetchMessages = async (chatRoomId) => {
     try {
-      const response = await api.get(`/chat/room/${chatRoomId}/messages`);
-      setMessages(response.data);
+      const response = await api.get(`/chat/room/${chatRoomId}/messages`, { params: { limit: 50 } });
+      setMessages(response.data.items);
+      setOlderCursor(response.data.nextCursor);
     } catch (error) {
       console.error('Error fetching messages:', error);
     }
   };
 
+  const fetchOlderMessages = async () => {
+    if (!activeChat || !olderCursor) return;
+    try {
+      const response = await api.get(`/chat/room/${activeChat.id || activeChat.chatRoomId}/messages`, {
+        params: { before: olderCursor, limit: 50 }
+      });
+      setMessages(prev => [...response.data.items, ...prev]);
+      setOlderCursor(response.data.nextCursor);
+    } catch (error) {
+      console.error('Error fetching older messages:', error);
+    }
+  };
+
   const handleSendMessage = async () => {
     if (!message.trim() || !activeChat) return;
 
@@ -203,10 +218,10 @@ const Chat = () => {
     if (lastEstimation) {
       console.log('Detailed Debug - Estimation Content:', lastEstimation.content);
       // Try to get amount from order object if available
-      if (lastEstimation.order && lastEstimation.order.totalAmount) {
-        console.log('Detailed Debug - Found Order Object:', lastEstimation.order);
-        setInvoiceAmount(lastEstimation.order.totalAmount);
-        setInvoiceDesc(`Order #${lastEstimation.order.id} Payment`);
+      if (lastEstimation.orderId && lastEstimation.orderTotalAmount) {
+        console.log('Detailed Debug - Found Order:', lastEstimation.orderId);
+        setInvoiceAmount(lastEstimation.orderTotalAmount);
+        setInvoiceDesc(`Order #${lastEstimation.orderId} Payment`);
       } else {
         // Fallback: Parse content string "Estimation sent: Order #123 - Total: ₹5000"
         const content = lastEstimation.content || '';
@@ -421,13 +436,18 @@ const Chat = () => {
                     }}
                   >
                     <div className="flex-grow-1 overflow-auto mb-3">
+                      {olderCursor && (
+                        <div className="text-center mb-2">
+                          <Button variant="light" size="sm" onClick={fetchOlderMessages}>
+                            Load earlier messages
+                          </Button>
+                        </div>
+                      )}
                       {/* Sort messages: Oldest first (WhatsApp style) */}
                       {[...messages]
                         .sort((a, b) => new Date(a.timestamp || a.sentAt || 0) - new Date(b.timestamp || b.sentAt || 0))
                         .map((msg, index) => {
-                          // Backend returns 'sender' object (Message entity), WebSocket might send 'senderId'
-                          // Safe check for both scenarios
-                          const msgSenderId = msg.sender?.id || msg.senderId;
+                          const msgSenderId = msg.senderId;
                           const isMe = Number(msgSenderId) === Number(user.id);
 
                           // DEBUG LOG (Remove in production)
@@ -2,7 +2,7 @@ import React from 'react';
 import { Card, Badge } from 'react-bootstrap';
 
 const ChatMessage = ({ message, currentUserId }) => {
-    const isSender = message.sender?.id === currentUserId;
+    const isSender = message.senderId === currentUserId;
     const messageTypeColors = {
         TEXT: 'secondary',
         ESTIMATION: 'warning',
@@ -34,19 +34,19 @@ const ChatMessage = ({ message, currentUserId }) => {
 
                     <p className="mb-1">{message.content}</p>
 
-                    {message.order && (
+                    {message.orderId && (
                         <div className="mt-2 p-2 border rounded bg-white text-dark">
                             <small>
-                                <strong>Order #{message.order.id}</strong><br />
-                                Amount: ₹{message.order.totalAmount}<br />
-                                Status: {message.order.status}
+                                <strong>Order #{message.orderId}</strong><br />
+                                Amount: ₹{message.orderTotalAmount}<br />
+                                Status: {message.orderStatus}
                             </small>
                         </div>
                     )}
 
                     <div className="text-end">
                         <small className={isSender ? 'text-white-50' : 'text-muted'}>
-                            {message.sender?.name} • {formatTime(message.timestamp)}
+                            {message.senderName} • {formatTime(message.timestamp)}
                         </small>
                     </div>
                 </Card.Body>
@@ -32,7 +32,7 @@ const OrderCard = ({ order, role, onUpdateStatus, onViewDetails, ...props }) =>
 
     const handleStatusUpdate = (newStatus) => {
         if (onUpdateStatus) {
-            onUpdateStatus(order.id, newStatus);
+            onUpdateStatus(order.id, newStatus, order.version);
         }
     };
 
@@ -14,24 +14,27 @@ const OrderHistory = () => {
   const [selectedOrder, setSelectedOrder] = useState(null);
   const [showModal, setShowModal] = useState(false);
 
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // Order lists are summaries; items are loaded only when an order is opened
+  const fetchPage = async (cursor) => {
+    if (user?.role === 'shopkeeper' && user.shopkeeperId) {
+      return orderService.getShopkeeperOrderSummaries(user.shopkeeperId, cursor);
+    }
+    if (user?.role === 'vendor' && user.vendorId) {
+      return orderService.getVendorOrderSummaries(user.vendorId, cursor);
+    }
+    return { items: [], nextCursor: null };
+  };
+
   useEffect(() => {
     const fetchOrders = async () => {
       try {
         setLoading(true);
-        let data = [];
-        if (user?.role === 'shopkeeper') {
-          // Ensure shopkeeperId exists. In some auth context implementations it might be nested or named differently.
-          // Based on ShopkeeperOrderHistory.jsx it seemed to be user.shopkeeperId
-          if (user.shopkeeperId) {
-            data = await orderService.getShopkeeperOrders(user.shopkeeperId);
-          }
-        } else if (user?.role === 'vendor') {
-          // Similarly for vendor
-          if (user.vendorId) {
-            data = await orderService.getVendorOrders(user.vendorId);
-          }
-        }
-        setOrders(data);
+        const page = await fetchPage(null);
+        setOrders(page.items);
+        setNextCursor(page.nextCursor);
       } catch (err) {
         setError('Failed to fetch orders. ' + (err.response?.data?.message || err.message));
         console.error("Order fetch error:", err);
@@ -45,9 +48,27 @@ const OrderHistory = () => {
     }
   }, [user]);
 
-  const handleShowDetails = (order) => {
-    setSelectedOrder(order);
-    setShowModal(true);
+  const handleLoadMore = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await fetchPage(nextCursor);
+      setOrders(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError('Failed to fetch orders. ' + (err.response?.data?.message || err.message));
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const handleShowDetails = async (summary) => {
+    try {
+      const order = await orderService.getOrderById(summary.id);
+      setSelectedOrder(order);
+      setShowModal(true);
+    } catch (err) {
+      setError('Failed to load order details. ' + (err.response?.data?.message || err.message));
+    }
   };
 
   const handleCloseModal = () => {
@@ -107,8 +128,8 @@ const OrderHistory = () => {
                         </div>
                         <p className="text-muted mb-2">Date: {formatDate(order.orderDate)}</p>
                         <p className="mb-3">
-                          <strong>Vendor:</strong> {order.vendor?.shopName || 'Unknown Vendor'}<br />
-                          <strong>Items:</strong> {order.orderItems?.length || 0} | <strong>Total:</strong> ₹{order.totalAmount}
+                          <strong>Vendor:</strong> {order.vendorShopName || 'Unknown Vendor'}<br />
+                          <strong>Items:</strong> {order.itemCount} | <strong>Total:</strong> ₹{order.totalAmount}
                         </p>
                         <Button variant="outline-primary" size="sm" onClick={() => handleShowDetails(order)}>View Details</Button>
                       </Card.Body>
@@ -146,9 +167,9 @@ const OrderHistory = () => {
                       {orders.map(order => (
                         <tr key={order.id}>
                           <td>#{order.id}</td>
-                          <td>{order.shopkeeper?.shopName || 'Unknown'}</td>
+                          <td>{order.shopkeeperShopName || 'Unknown'}</td>
                           <td>{formatDate(order.orderDate)}</td>
-                          <td>{order.orderItems?.length || 0}</td>
+                          <td>{order.itemCount}</td>
                           <td>₹{order.totalAmount}</td>
                           <td>
                             <Badge bg={getStatusColor(order.status)}>{order.status}</Badge>
@@ -166,6 +187,14 @@ const OrderHistory = () => {
           </>
         )}
 
+        {nextCursor && (
+          <div className="text-center mt-3">
+            <Button variant="outline-secondary" onClick={handleLoadMore} disabled={loadingMore}>
+              {loadingMore ? 'Loading...' : 'Load more'}
+            </Button>
+          </div>
+        )}
+
         {!user?.role && (
           <div className="alert alert-info text-center">
             <h5>Order History</h5>
@@ -7,7 +7,8 @@ import { getValidImageUrl } from '../../utils/imageUtils';
 const ProductCard = ({ product, onAddToCart, onDirectBuy }) => {
   // Support both API format (productName, imageUrl) and demo data format (name, image)
   const productName = product.productName || product.name;
-  const photoLink = product.imageUrl || product.photoLink || product.image;
+  // Prefer the 300px variant once the server has generated it
+  const photoLink = product.imageVariants?.cardUrl || product.imageUrl || product.photoLink || product.image;
   const price = product.price;
   const discount = product.discount;
   const stock = product.stock;
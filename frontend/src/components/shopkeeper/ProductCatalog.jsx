@@ -95,6 +95,7 @@ const ProductCatalog = () => {
             description: product.description,
             price: product.price,
             imageUrl: product.imageUrl,
+            imageVariants: product.imageVariants,
             vendor: product.vendor?.user?.name || product.vendor?.shopName || 'Unknown Vendor',
             vendorId: product.vendor?.id,
             stockQuantity: product.stockQuantity
@@ -70,7 +70,7 @@ const ShopkeeperChat = () => {
     const fetchMessages = async (roomId) => {
         try {
             const data = await chatService.getMessages(roomId);
-            setMessages(data);
+            setMessages(data.items);
         } catch (err) {
             console.error('Failed to load messages:', err);
         }
@@ -28,9 +28,11 @@ export const chatService = {
         return response.data;
     },
 
-    // Get all messages in a chat room
-    getMessages: async (roomId) => {
-        const response = await api.get(`/chat/room/${roomId}/messages`);
+    // Get a page of messages in a chat room, newest page first; pass nextCursor as before for older ones
+    getMessages: async (roomId, before = null, limit = 50) => {
+        const response = await api.get(`/chat/room/${roomId}/messages`, {
+            params: before ? { before, limit } : { limit }
+        });
         return response.data;
     },
 
@@ -20,9 +20,21 @@ export const orderService = {
         return response.data;
     },
 
-    // Update order status (vendor only)
-    updateOrderStatus: async (orderId, status) => {
-        const response = await api.patch(`/orders/${orderId}/status`, { status });
+    // One page of a shopkeeper's order history (newest first); pass nextCursor for the next page
+    getShopkeeperOrderSummaries: async (shopkeeperId, cursor, limit = 20) => {
+        const response = await api.get(`/orders/shopkeeper/${shopkeeperId}/summaries`, { params: { cursor, limit } });
+        return response.data;
+    },
+
+    // One page of a vendor's order history (newest first); pass nextCursor for the next page
+    getVendorOrderSummaries: async (vendorId, cursor, limit = 20) => {
+        const response = await api.get(`/orders/vendor/${vendorId}/summaries`, { params: { cursor, limit } });
+        return response.data;
+    },
+
+    // Update order status (vendor only); version is the one last seen, so a stale view gets a 409
+    updateOrderStatus: async (orderId, status, version) => {
+        const response = await api.patch(`/orders/${orderId}/status`, { status, version });
         return response.data;
     },
 
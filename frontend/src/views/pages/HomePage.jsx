@@ -148,7 +148,7 @@ const HomePage = () => {
                     className="category-icon mb-3" 
                     style={{ 
                       height: '120px', 
-                      backgroundImage: getValidImageUrl(category.photo) ? `url(${getValidImageUrl(category.photo)})` : 'none',
+                      backgroundImage: getValidImageUrl(category.imageVariants?.cardUrl || category.photo) ? `url(${getValidImageUrl(category.imageVariants?.cardUrl || category.photo)})` : 'none',
                       backgroundSize: 'cover',
                       backgroundPosition: 'center',
                       borderRadius: '8px',
@@ -158,10 +158,10 @@ const HomePage = () => {
                       position: 'relative'
                     }}
                   >
-                    {!getValidImageUrl(category.photo) && (
+                    {!getValidImageUrl(category.imageVariants?.cardUrl || category.photo) && (
                       <span style={{ fontSize: '3rem' }}>{getCategoryIcon(category.name)}</span>
                     )}
-                    {getValidImageUrl(category.photo) && (
+                    {getValidImageUrl(category.imageVariants?.cardUrl || category.photo) && (
                       <div style={{
                         position: 'absolute',
                         top: 0,
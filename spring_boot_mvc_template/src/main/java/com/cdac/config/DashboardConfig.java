@@ -0,0 +1,19 @@
+package com.cdac.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class DashboardConfig {
+
+    // The overview queries spend their time waiting on the database, so a virtual
+    // thread per query is enough. Nothing here bounds them: excess queries queue on the
+    // connection pool, and DashboardOverviewService interrupts and times out the late ones
+    @Bean(destroyMethod = "close")
+    public ExecutorService dashboardExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
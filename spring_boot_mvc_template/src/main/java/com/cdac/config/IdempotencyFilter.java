@@ -0,0 +1,207 @@
+package com.cdac.config;
+
+import com.cdac.entity.IdempotencyRecord;
+import com.cdac.security.JwtUtils;
+import com.cdac.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes order placement and checkout safe to retry.
+ *
+ * A POST carrying an Idempotency-Key header is executed at most once per key:
+ * a retry with the same key and body gets the stored response back (with an
+ * Idempotent-Replayed header) without reaching the controller, and a duplicate
+ * that arrives while the first is still running waits for its response.
+ * Keys are scoped to the caller's user id, so two users may pick the same key.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Set<String> PATHS = Set.of("/api/orders", "/api/shopkeeper/cart/checkout");
+    private static final long WAIT_SECONDS = 30;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > 255) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + HEADER + " header");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        // Scoped by user id rather than the raw token, so a retry with a refreshed token still replays
+        String id = sha256((principal(request) + " " + key).getBytes(StandardCharsets.UTF_8));
+        String fingerprint = sha256(concat(request.getMethod() + " " + request.getRequestURI() + "\n", body));
+
+        IdempotencyRecord stored = idempotencyService.find(id);
+        if (stored != null) {
+            replay(stored, fingerprint, response);
+            return;
+        }
+
+        CompletableFuture<IdempotencyRecord> running = idempotencyService.begin(id);
+        if (running != null) {
+            try {
+                replay(running.get(WAIT_SECONDS, TimeUnit.SECONDS), fingerprint, response);
+            } catch (TimeoutException e) {
+                response.sendError(HttpServletResponse.SC_CONFLICT, "A request with this " + HEADER + " is still in progress");
+            } catch (ExecutionException e) {
+                response.sendError(HttpServletResponse.SC_CONFLICT, "The original request failed, retry it");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), captured);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyService.abandon(id, e);
+            throw e;
+        }
+        idempotencyService.complete(id, new IdempotencyRecord(id, fingerprint, captured.getStatus(),
+                captured.getContentType(), captured.getContentAsByteArray(), null));
+        captured.copyBodyToResponse();
+    }
+
+    private String principal(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                Long userId = jwtUtils.extractUserId(authorization.substring(7));
+                if (userId != null) {
+                    return "user:" + userId;
+                }
+            } catch (RuntimeException e) {
+                // Invalid or expired tokens are rejected further down the chain
+            }
+        }
+        return "anonymous";
+    }
+
+    private static void replay(IdempotencyRecord record, String fingerprint, HttpServletResponse response)
+            throws IOException {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            response.sendError(422, HEADER + " was already used for a different request");
+            return;
+        }
+        response.setStatus(record.getStatus());
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        response.setContentLength(record.getBody().length);
+        response.getOutputStream().write(record.getBody());
+    }
+
+    private static byte[] concat(String prefix, byte[] body) {
+        byte[] head = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] all = new byte[head.length + body.length];
+        System.arraycopy(head, 0, all, 0, head.length);
+        System.arraycopy(body, 0, all, head.length, body.length);
+        return all;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Lets the controller read a body the filter has already consumed
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
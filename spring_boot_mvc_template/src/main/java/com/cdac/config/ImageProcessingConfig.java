@@ -0,0 +1,30 @@
+package com.cdac.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ImageProcessingConfig {
+
+    // Resizing is CPU and memory heavy, so it gets a small pool of its own instead of request threads
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor(
+            @Value("${images.variant-threads:2}") int threads,
+            @Value("${images.variant-queue:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variants-");
+        // When the queue is full the upload still succeeds; clients fall back to the original image
+        executor.setRejectedExecutionHandler((task, pool) ->
+                System.err.println("Image variant queue full, skipping resize"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,13 +1,21 @@
 package com.cdac.controller;
 
+import com.cdac.entity.OrderStatus;
+import com.cdac.service.AdminStatsService;
+import com.cdac.service.OrderArchiveService;
+import com.cdac.service.OrderExportService;
 import com.cdac.service.OrderService;
-import com.cdac.service.UserService;
+import com.cdac.service.RevenueRollupService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -19,7 +27,16 @@ public class AdminController {
     private OrderService orderService;
 
     @Autowired
-    private UserService userService;
+    private AdminStatsService adminStatsService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
 
     @GetMapping("/orders")
     public ResponseEntity<?> getAllOrders() {
@@ -30,15 +47,58 @@ public class AdminController {
         }
     }
 
+    /**
+     * Streams all orders, archived ones included, as CSV or NDJSON without loading them into memory.
+     */
+    @GetMapping("/orders/export")
+    public void exportOrders(@RequestParam(defaultValue = OrderExportService.FORMAT_CSV) String format,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                             @RequestParam(required = false) Long vendorId,
+                             @RequestParam(required = false) String status,
+                             HttpServletResponse httpResponse) throws IOException {
+        httpResponse.setContentType(OrderExportService.FORMAT_CSV.equals(format) ? "text/csv" : "application/x-ndjson");
+        httpResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        httpResponse.setHeader("Content-Disposition", "attachment; filename=\"orders." + format + "\"");
+        try {
+            OrderStatus orderStatus = status != null ? OrderStatus.valueOf(status.toUpperCase()) : null;
+            orderExportService.exportOrders(from, to, vendorId, orderStatus, format, httpResponse.getWriter());
+        } catch (RuntimeException e) {
+            if (httpResponse.isCommitted()) {
+                throw e;
+            }
+            httpResponse.reset();
+            httpResponse.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Runs the nightly order archival now; returns the number of orders moved
+    @PostMapping("/orders/archive")
+    public ResponseEntity<?> archiveOrders() {
+        try {
+            return ResponseEntity.ok(Map.of("archived", orderArchiveService.archiveOldOrders()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Rebuilds the daily revenue rollups of [from, to] from the order tables; returns the number of days rebuilt
+    @PostMapping("/revenue-rollups/reconcile")
+    public ResponseEntity<?> reconcileRevenueRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(Map.of("days", revenueRollupService.reconcile(from, to)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Served from the snapshot AdminStatsService refreshes every admin.stats.refresh-millis
     @GetMapping("/dashboard/stats")
     public ResponseEntity<?> getDashboardStats() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalVendors", userService.getAllVendors().size());
-            stats.put("totalShopkeepers", userService.getAllShopkeepers().size());
-            stats.put("totalOrders", orderService.getAllOrders().size());
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(adminStatsService.getStats());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
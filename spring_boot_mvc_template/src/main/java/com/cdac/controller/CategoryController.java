@@ -4,6 +4,11 @@ import com.cdac.entity.Category;
 import com.cdac.entity.SubCategory;
 import com.cdac.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,8 +21,17 @@ public class CategoryController {
     private CategoryService categoryService;
 
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CategoryService.CategoryTreeSnapshot tree = categoryService.getCategoryTree();
+        if (ifNoneMatch != null && (ifNoneMatch.contains(tree.getEtag()) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tree.getEtag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(tree.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(tree.getJson());
     }
 
     @PostMapping(consumes = {"multipart/form-data"})
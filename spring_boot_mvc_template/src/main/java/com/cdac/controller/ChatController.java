@@ -42,9 +42,16 @@ public class ChatController {
         }
     }
 
+    // Newest page first; pass nextCursor as before to load older messages
     @GetMapping("/room/{roomId}/messages")
-    public List<Message> getMessages(@PathVariable Long roomId) {
-        return chatService.getMessages(roomId);
+    public ResponseEntity<?> getMessages(@PathVariable Long roomId,
+                                         @RequestParam(required = false) String before,
+                                         @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(chatService.getMessagePage(roomId, before, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @PostMapping("/estimation")
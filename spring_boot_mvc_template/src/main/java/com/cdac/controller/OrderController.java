@@ -5,6 +5,8 @@ import com.cdac.entity.Order;
 import com.cdac.entity.OrderStatus;
 import com.cdac.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -37,13 +39,47 @@ public class OrderController {
     public List<Order> getOrdersByVendor(@PathVariable Long id) {
         return orderService.getOrdersByVendor(id);
     }
+
+    @GetMapping("/shopkeeper/{id}/summaries")
+    public ResponseEntity<?> getOrderSummariesByShopkeeper(@PathVariable Long id,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderSummariesByShopkeeper(id, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/vendor/{id}/summaries")
+    public ResponseEntity<?> getOrderSummariesByVendor(@PathVariable Long id,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderSummariesByVendor(id, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
     
     @PatchMapping("/{id}/status")
     public ResponseEntity<?> updateStatus(@PathVariable Long id, @RequestBody Map<String, String> statusUpdate) {
         try {
             OrderStatus status = OrderStatus.valueOf(statusUpdate.get("status"));
-            Order order = orderService.updateOrderStatus(id, status);
+            // Optional: the version the client last saw, so a stale tab cannot overwrite a newer change
+            String version = statusUpdate.get("version");
+            Long expectedVersion = null;
+            if (version != null) {
+                try {
+                    expectedVersion = Long.valueOf(version.trim());
+                } catch (NumberFormatException e) {
+                    return ResponseEntity.badRequest().body("Invalid version value");
+                }
+            }
+            Order order = orderService.updateOrderStatus(id, status, expectedVersion);
             return ResponseEntity.ok(order);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Order was changed by someone else; reload and try again");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body("Invalid status value");
         } catch (RuntimeException e) {
@@ -1,8 +1,6 @@
 package com.cdac.controller;
 
-import com.cdac.entity.Order;
-import com.cdac.entity.OrderStatus;
-import com.cdac.repository.OrderRepository;
+import com.cdac.service.OrderService;
 import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
 import org.json.JSONObject;
@@ -25,7 +23,7 @@ public class PaymentController {
     private String razorpayKeySecret;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderService orderService;
 
     @PostMapping("/create-order")
     public ResponseEntity<?> createOrder(@RequestBody Map<String, Object> data) {
@@ -67,12 +65,7 @@ public class PaymentController {
             // boolean isValid = Utils.verifyPaymentSignature(new JSONObject(data), razorpayKeySecret);
 
             // For this demo, we assume success if IDs are present, but updating our Order
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
-
-            order.setTransactionId(razorpayPaymentId);
-            order.setStatus(OrderStatus.CONFIRMED); // Update status to Confirmed upon payment
-            orderRepository.save(order);
+            orderService.recordPayment(orderId, razorpayPaymentId); // Update status to Confirmed upon payment
 
             return ResponseEntity.ok("Payment verified and Order Confirmed");
 
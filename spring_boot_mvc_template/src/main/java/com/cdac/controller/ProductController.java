@@ -3,6 +3,7 @@ package com.cdac.controller;
 import com.cdac.entity.Product;
 import com.cdac.service.ProductService;
 import com.cdac.dto.ProductUpdateRequest;
+import com.cdac.dto.ProductSummaryDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -67,7 +68,7 @@ public class ProductController {
     }
 
     @GetMapping("/featured")
-    public List<Product> getFeaturedProducts() {
+    public List<ProductSummaryDto> getFeaturedProducts() {
         return productService.getFeaturedProducts();
     }
 
@@ -2,10 +2,17 @@ package com.cdac.controller;
 
 import com.cdac.service.ProductService;
 import com.cdac.service.CategoryService;
+import com.cdac.service.FacetIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/products/public")
 public class PublicProductController {
@@ -21,18 +28,89 @@ public class PublicProductController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> getProductPage(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int limit) {
+        try {
+            return ResponseEntity.ok(productService.getProductPage(sort, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(@RequestParam("q") String query,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.searchProducts(query, limit));
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<?> filterProducts(
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) List<String> discountBand,
+            @RequestParam(required = false) List<String> inStock,
+            @RequestParam(required = false) List<String> subCategoryId,
+            @RequestParam(required = false) List<String> vendorId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "24") int limit) {
+        Map<String, Set<String>> selections = new HashMap<>();
+        putSelection(selections, FacetIndexService.PRICE_BAND, priceBand);
+        putSelection(selections, FacetIndexService.DISCOUNT_BAND, discountBand);
+        putSelection(selections, FacetIndexService.IN_STOCK, inStock);
+        putSelection(selections, FacetIndexService.SUB_CATEGORY, subCategoryId);
+        putSelection(selections, FacetIndexService.VENDOR, vendorId);
+        return ResponseEntity.ok(productService.filterProducts(selections, afterId, limit));
+    }
+
+    private void putSelection(Map<String, Set<String>> selections, String facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            selections.put(facet, new HashSet<>(values));
+        }
+    }
+
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId) {
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+    public ResponseEntity<?> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int limit) {
+        try {
+            return ResponseEntity.ok(productService.getListingsByCategory(categoryId, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/category/{categoryId}/featured")
+    public ResponseEntity<?> getFeaturedProductsByCategory(@PathVariable Long categoryId) {
+        return ResponseEntity.ok(productService.getFeaturedProductsByCategory(categoryId));
     }
 
     @GetMapping("/subcategory/{subCategoryId}")
-    public ResponseEntity<?> getProductsBySubCategory(@PathVariable Long subCategoryId) {
-        return ResponseEntity.ok(productService.getProductsBySubCategory(subCategoryId));
+    public ResponseEntity<?> getProductsBySubCategory(
+            @PathVariable Long subCategoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int limit) {
+        try {
+            return ResponseEntity.ok(productService.getListingsBySubCategory(subCategoryId, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/featured")
     public ResponseEntity<?> getFeaturedProducts() {
         return ResponseEntity.ok(productService.getFeaturedProducts());
     }
+
+    // Stock minus live cart reservations
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> getAvailability(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(productService.getAvailability(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
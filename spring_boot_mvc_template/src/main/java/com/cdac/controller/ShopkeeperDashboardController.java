@@ -1,10 +1,20 @@
 package com.cdac.controller;
 
+import com.cdac.dto.ShopkeeperDashboardOverviewDto;
+import com.cdac.dto.ShopkeeperDashboardSummaryDto;
+import com.cdac.dto.SpendAnalyticsDto;
+import com.cdac.entity.OrderStatus;
 import com.cdac.service.ShopkeeperDashboardService;
+import com.cdac.service.DashboardOverviewService;
+import com.cdac.service.RevenueRollupService;
+import com.cdac.service.SpendAnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -14,6 +24,15 @@ public class ShopkeeperDashboardController {
     @Autowired
     private ShopkeeperDashboardService dashboardService;
 
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private DashboardOverviewService dashboardOverviewService;
+
+    @Autowired
+    private SpendAnalyticsService spendAnalyticsService;
+
     @GetMapping("/{shopkeeperId}/total-spend")
     public BigDecimal getTotalSpend(@PathVariable Long shopkeeperId) {
         return dashboardService.getTotalSpend(shopkeeperId);
@@ -28,4 +47,41 @@ public class ShopkeeperDashboardController {
     public Map<String, Long> getOrderStatusCounts(@PathVariable Long shopkeeperId) {
         return dashboardService.getOrderStatusCounts(shopkeeperId);
     }
+
+    // Summary plus recent orders and the 30-day trend, queried in parallel; see the partial flag
+    @GetMapping("/{shopkeeperId}/overview")
+    public ShopkeeperDashboardOverviewDto getOverview(@PathVariable Long shopkeeperId) {
+        return dashboardOverviewService.shopkeeperOverview(shopkeeperId);
+    }
+
+    @GetMapping("/{shopkeeperId}/summary")
+    public ShopkeeperDashboardSummaryDto getSummary(@PathVariable Long shopkeeperId) {
+        return dashboardService.getSummary(shopkeeperId);
+    }
+
+    // Spend by vendor, category, month and top products; cancelled orders excluded
+    @GetMapping("/{shopkeeperId}/spend-analytics")
+    public SpendAnalyticsDto getSpendAnalytics(@PathVariable Long shopkeeperId) {
+        return spendAnalyticsService.getSpendAnalytics(shopkeeperId);
+    }
+
+    /**
+     * Order count and value per day, week or month over [from, to], read from the daily rollups.
+     * Defaults to the last 30 days by day; status limits it to orders currently in that status.
+     */
+    @GetMapping("/{shopkeeperId}/spend-trend")
+    public ResponseEntity<?> getSpendTrend(@PathVariable Long shopkeeperId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = RevenueRollupService.DAY) String granularity,
+            @RequestParam(required = false) String status) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            OrderStatus orderStatus = status != null ? OrderStatus.valueOf(status.toUpperCase()) : null;
+            return ResponseEntity.ok(revenueRollupService.shopkeeperTrend(shopkeeperId, start, end, granularity, orderStatus));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
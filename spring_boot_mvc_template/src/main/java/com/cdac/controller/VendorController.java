@@ -1,22 +1,38 @@
 package com.cdac.controller;
 
+import com.cdac.service.OrderBulkStatusService;
+import com.cdac.service.OrderExportService;
+import com.cdac.service.ProductBulkUpdateService;
+import com.cdac.service.ProductImportService;
 import com.cdac.service.ProductService;
 import com.cdac.service.OrderService;
 import com.cdac.service.VendorService;
 import com.cdac.security.JwtUtils;
 import com.cdac.entity.OrderStatus;
+import com.cdac.dto.OrderStatusBulkUpdate;
+import com.cdac.dto.ProductStockPriceUpdate;
 import com.cdac.dto.VendorUpdateRequest;
 import com.cdac.dto.VendorDto;
 import com.cdac.entity.Vendor;
 import com.cdac.repository.VendorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/vendor")
@@ -34,6 +50,18 @@ public class VendorController {
     @Autowired
     private VendorService vendorService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @Autowired
+    private OrderBulkStatusService orderBulkStatusService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
     @PostMapping("/products")
     public ResponseEntity<?> addProduct(
             @RequestParam String name,
@@ -53,6 +81,44 @@ public class VendorController {
         }
     }
 
+    /**
+     * Streams a CSV (header row required) or NDJSON catalog into the vendor's products.
+     * The response is NDJSON: one line per rejected row, periodic progress lines and a final summary.
+     */
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public void importProducts(HttpServletRequest httpRequest, HttpServletResponse httpResponse) throws IOException {
+        String format = httpRequest.getContentType().startsWith("text/csv")
+                ? ProductImportService.FORMAT_CSV : ProductImportService.FORMAT_NDJSON;
+        httpResponse.setContentType("application/x-ndjson");
+        httpResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(httpRequest.getInputStream(), StandardCharsets.UTF_8))) {
+            Long vendorId = extractVendorIdFromToken(httpRequest);
+            productImportService.importProducts(vendorId, format, reader, httpResponse.getWriter());
+        } catch (RuntimeException e) {
+            // Once rows have been reported the status is already sent; only early failures become a 400
+            if (httpResponse.isCommitted()) {
+                throw e;
+            }
+            httpResponse.reset();
+            httpResponse.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Applies price/discount/stock changes to many products in one request; omitted fields are left as they are.
+     */
+    @PatchMapping("/products/bulk")
+    public ResponseEntity<?> bulkUpdateProducts(@RequestBody List<ProductStockPriceUpdate> updates,
+                                                HttpServletRequest httpRequest) {
+        try {
+            Long vendorId = extractVendorIdFromToken(httpRequest);
+            return ResponseEntity.ok(productBulkUpdateService.updateProducts(vendorId, updates));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/products")
     public ResponseEntity<?> getMyProducts(HttpServletRequest httpRequest) {
         try {
@@ -127,14 +193,59 @@ public class VendorController {
         }
     }
     @PutMapping("/orders/{id}/status")
-    public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @RequestParam OrderStatus status) {
+    public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @RequestParam OrderStatus status,
+                                               @RequestParam(required = false) Long version) {
         try {
-            return ResponseEntity.ok(orderService.updateOrderStatus(id, status));
+            return ResponseEntity.ok(orderService.updateOrderStatus(id, status, version));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Order was changed by someone else; reload and try again");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Moves many of the vendor's orders to one status; orders that cannot make the
+     * transition are reported back rather than failing the request. Orders are
+     * updated in batches, so if a later batch fails the earlier ones stay updated
+     * and the rest are reported as not updated.
+     */
+    @PatchMapping("/orders/bulk-status")
+    public ResponseEntity<?> bulkUpdateOrderStatus(@RequestBody OrderStatusBulkUpdate request,
+                                                   HttpServletRequest httpRequest) {
+        try {
+            Long vendorId = extractVendorIdFromToken(httpRequest);
+            return ResponseEntity.ok(orderBulkStatusService.updateStatuses(vendorId, request.getIds(), request.getStatus()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the vendor's orders, archived ones included, as CSV (one row per line) or NDJSON (one object per order).
+     */
+    @GetMapping("/orders/export")
+    public void exportOrders(@RequestParam(defaultValue = OrderExportService.FORMAT_CSV) String format,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                             @RequestParam(required = false) String status,
+                             HttpServletRequest httpRequest, HttpServletResponse httpResponse) throws IOException {
+        httpResponse.setContentType(OrderExportService.FORMAT_CSV.equals(format) ? "text/csv" : "application/x-ndjson");
+        httpResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        httpResponse.setHeader("Content-Disposition", "attachment; filename=\"orders." + format + "\"");
+        try {
+            Long vendorId = extractVendorIdFromToken(httpRequest);
+            OrderStatus orderStatus = status != null ? OrderStatus.valueOf(status.toUpperCase()) : null;
+            orderExportService.exportOrders(from, to, vendorId, orderStatus, format, httpResponse.getWriter());
+        } catch (RuntimeException e) {
+            if (httpResponse.isCommitted()) {
+                throw e;
+            }
+            httpResponse.reset();
+            httpResponse.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
     private Long extractVendorIdFromToken(HttpServletRequest request) {
         String token = extractTokenFromRequest(request);
         return jwtUtils.extractUserId(token);
@@ -1,10 +1,18 @@
 package com.cdac.controller;
 
+import com.cdac.dto.VendorDashboardOverviewDto;
+import com.cdac.dto.VendorDashboardSummaryDto;
+import com.cdac.entity.OrderStatus;
 import com.cdac.service.VendorDashboardService;
+import com.cdac.service.DashboardOverviewService;
+import com.cdac.service.RevenueRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -14,6 +22,12 @@ public class VendorDashboardController {
     @Autowired
     private VendorDashboardService dashboardService;
 
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private DashboardOverviewService dashboardOverviewService;
+
     @GetMapping("/{vendorId}/total-products")
     public Long getTotalProducts(@PathVariable Long vendorId) {
         return dashboardService.getTotalProducts(vendorId);
@@ -33,4 +47,35 @@ public class VendorDashboardController {
     public Map<String, Long> getOrderStatusCounts(@PathVariable Long vendorId) {
         return dashboardService.getOrderStatusCounts(vendorId);
     }
+
+    // Summary plus recent orders and the 30-day trend, queried in parallel; see the partial flag
+    @GetMapping("/{vendorId}/overview")
+    public VendorDashboardOverviewDto getOverview(@PathVariable Long vendorId) {
+        return dashboardOverviewService.vendorOverview(vendorId);
+    }
+
+    @GetMapping("/{vendorId}/summary")
+    public VendorDashboardSummaryDto getSummary(@PathVariable Long vendorId) {
+        return dashboardService.getSummary(vendorId);
+    }
+
+    /**
+     * Order count and value per day, week or month over [from, to], read from the daily rollups.
+     * Defaults to the last 30 days by day; status limits it to orders currently in that status.
+     */
+    @GetMapping("/{vendorId}/income-trend")
+    public ResponseEntity<?> getIncomeTrend(@PathVariable Long vendorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = RevenueRollupService.DAY) String granularity,
+            @RequestParam(required = false) String status) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            OrderStatus orderStatus = status != null ? OrderStatus.valueOf(status.toUpperCase()) : null;
+            return ResponseEntity.ok(revenueRollupService.vendorTrend(vendorId, start, end, granularity, orderStatus));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Platform-wide figures for the admin dashboard, as of generatedAt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminStatsDto {
+    private long totalVendors;
+    private long totalShopkeepers;
+    private long totalOrders;
+    private BigDecimal gmv; // value of all orders that were not cancelled
+    private long ordersToday;
+    private long activeVendors; // vendors with an order in the last ACTIVE_DAYS days
+    private List<CategorySalesDto> topCategories; // by revenue over the last ACTIVE_DAYS days
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,17 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateResultDto {
+    private List<Long> updated;
+    private List<Long> notFound; // missing or owned by another vendor
+    private Map<Long, String> invalid; // id -> validation message
+}
@@ -0,0 +1,17 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySalesDto {
+    private Long categoryId;
+    private String categoryName;
+    private Long unitsSold;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,19 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetSearchResultDto {
+    private long total; // number of products matching every selected facet
+    private List<ProductSummaryDto> items;
+    private Map<String, Map<String, Long>> facets; // facet -> value -> matching product count
+    private Long nextAfterId; // pass as afterId for the next page; null when there are no more
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDto {
+    private List<MessageSummaryDto> items; // oldest first
+    private String nextCursor; // fetches the messages before this page; null when there are none
+    private boolean hasMore;
+}
@@ -0,0 +1,29 @@
+package com.cdac.dto;
+
+import com.cdac.entity.MessageType;
+import com.cdac.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One chat message as shown in the history; a linked order is reduced to its id, status and total.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSummaryDto {
+    private Long id;
+    private Long chatRoomId;
+    private Long senderId;
+    private String senderName;
+    private String content;
+    private MessageType messageType;
+    private LocalDateTime timestamp;
+    private Long orderId; // null unless the message carries an estimation or invoice
+    private OrderStatus orderStatus;
+    private BigDecimal orderTotalAmount;
+}
@@ -0,0 +1,17 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlySpendDto {
+    private Integer year;
+    private Integer month;
+    private Long orderCount;
+    private BigDecimal amount;
+}
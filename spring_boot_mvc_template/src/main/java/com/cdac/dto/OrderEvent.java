@@ -0,0 +1,46 @@
+package com.cdac.dto;
+
+import com.cdac.entity.OrderStatus;
+import com.cdac.entity.OrderType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order lifecycle event as stored in the outbox and handed to OrderEventSubscribers.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    public static final String CREATED = "ORDER_CREATED";
+    public static final String STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+
+    private Long eventId; // outbox row id, set on delivery
+    private String type;
+    private Long orderId;
+    private Long vendorId;
+    private Long shopkeeperId;
+    private Long chatRoomId;
+    private OrderType orderType;
+    private OrderStatus status;
+    private OrderStatus previousStatus; // null for CREATED
+    private BigDecimal totalAmount;
+    private LocalDateTime orderDate;
+    private LocalDateTime occurredAt;
+    private List<Line> lines; // CREATED only
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private Long categoryId;
+        private int quantity;
+    }
+}
@@ -0,0 +1,16 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDto {
+    private List<OrderSummaryDto> items;
+    private String nextCursor; // null when there are no more pages
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.cdac.dto;
+
+import com.cdac.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusBulkUpdate {
+    private List<Long> ids;
+    private OrderStatus status;
+}
@@ -0,0 +1,30 @@
+package com.cdac.dto;
+
+import com.cdac.entity.OrderStatus;
+import com.cdac.entity.OrderType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of an order for history listings; the item count is computed in SQL
+ * so the items themselves are never loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private Long id;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private OrderType orderType;
+    private BigDecimal totalAmount;
+    private long itemCount;
+    private Long vendorId;
+    private String vendorShopName;
+    private Long shopkeeperId;
+    private String shopkeeperShopName;
+}
@@ -0,0 +1,20 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Order count and value of a vendor or shopkeeper, overall and per status; live and archived orders combined.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTotalsDto {
+    private long totalOrders;
+    private BigDecimal totalAmount;
+    private Map<String, Long> statusCounts;
+}
@@ -0,0 +1,15 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductAvailabilityDto {
+    private Long productId;
+    private int stockQuantity;
+    private int reserved; // held by live cart reservations
+    private int available; // stock minus reservations, never negative
+}
@@ -0,0 +1,15 @@
+package com.cdac.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class ProductImportRow {
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer discount;
+    private Integer stockQuantity;
+    private Long subCategoryId;
+    private String imageUrl;
+}
@@ -0,0 +1,27 @@
+package com.cdac.dto;
+
+import com.cdac.entity.ImageVariants;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Listing row that references its vendor and sub-category by id only;
+ * their summaries travel once per page in ProductListingPageDto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductListingDto {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private int discount;
+    private int stockQuantity;
+    private String imageUrl;
+    private ImageVariants imageVariants;
+    private Long subCategoryId;
+    private Long vendorId;
+}
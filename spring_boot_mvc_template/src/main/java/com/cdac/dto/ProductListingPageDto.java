@@ -0,0 +1,19 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductListingPageDto {
+    private List<ProductListingDto> items;
+    private Map<Long, VendorSummaryDto> vendors; // keyed by ProductListingDto.vendorId
+    private Map<Long, SubCategorySummaryDto> subCategories; // keyed by ProductListingDto.subCategoryId
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSaleDto {
+    private Long productId;
+    private Long categoryId;
+    private LocalDateTime orderDate;
+    private int quantity;
+}
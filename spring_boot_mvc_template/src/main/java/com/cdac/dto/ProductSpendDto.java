@@ -0,0 +1,17 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSpendDto {
+    private Long productId;
+    private String productName;
+    private Long quantity;
+    private BigDecimal amount;
+}
@@ -0,0 +1,13 @@
+package com.cdac.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class ProductStockPriceUpdate {
+    private Long id;
+    // Null fields are left unchanged
+    private BigDecimal price;
+    private Integer discount;
+    private Integer stockQuantity;
+}
@@ -0,0 +1,30 @@
+package com.cdac.dto;
+
+import com.cdac.entity.ImageVariants;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat, read-only view of a product used by catalog listings.
+ * Built directly by JPQL constructor expressions so no entity graph is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDto {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private int discount;
+    private int stockQuantity;
+    private String imageUrl;
+    private ImageVariants imageVariants;
+    private Long subCategoryId;
+    private String subCategoryName;
+    private Long vendorId;
+    private String vendorShopName;
+}
@@ -0,0 +1,20 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders and their value in one period of a revenue trend; periodStart is the first day of the day, week or month.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenuePointDto {
+    private LocalDate periodStart;
+    private Long orderCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,17 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopkeeperDashboardSummaryDto {
+    private BigDecimal totalSpend;
+    private Long totalOrders;
+    private Map<String, Long> orderStatusCounts;
+}
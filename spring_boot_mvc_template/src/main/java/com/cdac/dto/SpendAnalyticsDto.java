@@ -0,0 +1,21 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Where a shopkeeper's money went, over live and archived orders that were not cancelled.
+ * Lists are ordered by amount, largest first, except byMonth, which is chronological.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendAnalyticsDto {
+    private List<VendorSpendDto> byVendor;
+    private List<CategorySalesDto> byCategory;
+    private List<MonthlySpendDto> byMonth; // last 12 months
+    private List<ProductSpendDto> topProducts;
+}
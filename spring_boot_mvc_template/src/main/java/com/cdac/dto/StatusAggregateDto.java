@@ -0,0 +1,20 @@
+package com.cdac.dto;
+
+import com.cdac.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Number and value of one party's orders in one status, as returned by the grouped dashboard queries.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusAggregateDto {
+    private OrderStatus status;
+    private Long orderCount;
+    private BigDecimal totalAmount;
+}
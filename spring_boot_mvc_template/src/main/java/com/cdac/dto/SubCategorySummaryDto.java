@@ -0,0 +1,14 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubCategorySummaryDto {
+    private Long id;
+    private String name;
+    private Long categoryId;
+}
@@ -0,0 +1,27 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The whole vendor dashboard in one response. When partial is true the sections
+ * named in missing did not finish in time or failed, and their fields are null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorDashboardOverviewDto {
+    private Long totalProducts;
+    private BigDecimal totalIncome;
+    private Long totalOrders;
+    private Map<String, Long> orderStatusCounts;
+    private List<OrderSummaryDto> recentOrders;
+    private List<RevenuePointDto> incomeTrend; // last 30 days by day
+    private boolean partial;
+    private List<String> missing;
+}
@@ -0,0 +1,18 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorDashboardSummaryDto {
+    private Long totalProducts;
+    private BigDecimal totalIncome;
+    private Long totalOrders;
+    private Map<String, Long> orderStatusCounts;
+}
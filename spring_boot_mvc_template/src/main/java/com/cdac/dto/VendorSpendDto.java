@@ -0,0 +1,17 @@
+package com.cdac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorSpendDto {
+    private Long vendorId;
+    private String vendorShopName;
+    private Long orderCount;
+    private BigDecimal amount;
+}
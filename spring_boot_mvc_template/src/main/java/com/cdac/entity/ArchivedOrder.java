@@ -0,0 +1,62 @@
+package com.cdac.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A finished order moved out of the orders table by OrderArchiveService.
+ * Keeps the original id, so an order is found under the same id in either table.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_vendor_id", columnList = "vendor_id, id"),
+        @Index(name = "idx_orders_archive_shopkeeper_id", columnList = "shopkeeper_id, id"),
+        @Index(name = "idx_orders_archive_order_date", columnList = "order_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "shopkeeper_id", nullable = false)
+    private Shopkeeper shopkeeper;
+
+    @ManyToOne
+    @JoinColumn(name = "vendor_id", nullable = false)
+    private Vendor vendor;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderType orderType;
+
+    private Long chatRoomId;
+
+    @Column(name = "transaction_id")
+    private String transactionId;
+
+    private LocalDateTime orderDate;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
+    private List<ArchivedOrderItem> orderItems;
+}
@@ -24,6 +24,9 @@ public class Category {
     private String description;
     
     private String photo;
+
+    @Embedded
+    private ImageVariants imageVariants;
     
     @OneToMany(
             mappedBy = "category",
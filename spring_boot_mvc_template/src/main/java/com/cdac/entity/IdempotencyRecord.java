@@ -0,0 +1,40 @@
+package com.cdac.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a request sent with an Idempotency-Key header, replayed
+ * to retries of the same request until it expires.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 64)
+    private String id; // SHA-256 of the caller's user id and the client's key
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint; // SHA-256 of method, path and request body
+
+    private int status;
+
+    private String contentType;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
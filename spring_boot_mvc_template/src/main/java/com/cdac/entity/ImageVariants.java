@@ -0,0 +1,23 @@
+package com.cdac.entity;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * URLs of the resized copies generated from an uploaded photo.
+ * All null until the background resize has finished.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariants {
+
+    private String thumbnailUrl; // fits 150px
+
+    private String cardUrl; // fits 300px
+
+    private String detailUrl; // fits 800px
+}
@@ -0,0 +1,36 @@
+package com.cdac.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted copy of a cart's stock reservation, so holds survive a restart.
+ * The live ledger is kept in memory by InventoryReservationService.
+ */
+@Entity
+@Table(name = "inventory_hold")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long shopkeeperId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
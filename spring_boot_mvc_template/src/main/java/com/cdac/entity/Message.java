@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_message_room_timestamp", columnList = "chat_room_id, timestamp, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +33,7 @@ public class Message {
 
     @OneToOne
     @JoinColumn(name = "order_id")
+    @com.fasterxml.jackson.annotation.JsonIgnoreProperties("orderItems") // lazy; fetch the order itself for its items
     private Order order; // Optional link to an order
 
     private LocalDateTime timestamp;
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders") // "order" is a reserved keyword in SQL
+@Table(name = "orders", indexes = { // "order" is a reserved keyword in SQL
+        @Index(name = "idx_orders_order_date", columnList = "order_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -44,8 +46,13 @@ public class Order {
     private String transactionId; // Razorpay Payment ID or Order ID
 
     private LocalDateTime orderDate;
+
+    // Existing rows start at 0 when the column is added
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
     
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @com.fasterxml.jackson.annotation.JsonManagedReference
     private List<OrderItem> orderItems;
 }
@@ -0,0 +1,45 @@
+package com.cdac.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order event waiting to be delivered to in-process subscribers. Rows are
+ * written in the same transaction as the order change and deleted by
+ * OutboxRelay once every subscriber has accepted them. A row that keeps failing
+ * is parked rather than deleted; it and every later event of its order stay
+ * undelivered until the flag is cleared, after which delivery resumes in order.
+ */
+@Entity
+@Table(name = "outbox_event")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // delivery order
+
+    @Column(nullable = false)
+    private Long aggregateId; // the order id; events of one order are delivered in id order
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload; // OrderEvent as JSON
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private boolean parked;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
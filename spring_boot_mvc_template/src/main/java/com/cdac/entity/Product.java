@@ -7,6 +7,9 @@ import lombok.AllArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +34,9 @@ public class Product {
 
     private String imageUrl;
 
+    @Embedded
+    private ImageVariants imageVariants;
+
     @ManyToOne
     @JoinColumn(name = "sub_category_id", nullable = false)
     private SubCategory subCategory;
@@ -0,0 +1,50 @@
+package com.cdac.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Number and value of the orders one shopkeeper placed with one vendor on one day, per status.
+ * Maintained by RevenueRollupService from order events and rebuilt from the order tables nightly.
+ */
+@Entity
+@Table(name = "revenue_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_revenue_rollup", columnNames = {"vendor_id", "shopkeeper_id", "order_day", "status"})
+}, indexes = {
+        @Index(name = "idx_revenue_rollup_vendor_day", columnList = "vendor_id, order_day"),
+        @Index(name = "idx_revenue_rollup_shopkeeper_day", columnList = "shopkeeper_id, order_day"),
+        @Index(name = "idx_revenue_rollup_day", columnList = "order_day")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "shopkeeper_id", nullable = false)
+    private Long shopkeeperId;
+
+    @Column(name = "order_day", nullable = false)
+    private LocalDate orderDay;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+}
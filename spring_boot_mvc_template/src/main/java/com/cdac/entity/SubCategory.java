@@ -22,6 +22,9 @@ public class SubCategory {
 
     private String photo;
 
+    @Embedded
+    private ImageVariants imageVariants;
+
     @ManyToOne
     @JoinColumn(name = "category_id", nullable = false)
     @com.fasterxml.jackson.annotation.JsonBackReference
@@ -0,0 +1,115 @@
+package com.cdac.repository;
+
+import com.cdac.dto.CategorySalesDto;
+import com.cdac.dto.MonthlySpendDto;
+import com.cdac.dto.OrderSummaryDto;
+import com.cdac.dto.ProductSpendDto;
+import com.cdac.dto.StatusAggregateDto;
+import com.cdac.dto.VendorSpendDto;
+import com.cdac.entity.ArchivedOrder;
+import com.cdac.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    String SUMMARY_SELECT = "SELECT new com.cdac.dto.OrderSummaryDto(o.id, o.orderDate, o.status, o.orderType, "
+            + "o.totalAmount, (SELECT COUNT(i) FROM ArchivedOrderItem i WHERE i.order = o), v.id, v.shopName, s.id, s.shopName) "
+            + "FROM ArchivedOrder o JOIN o.vendor v JOIN o.shopkeeper s ";
+
+    @EntityGraph(attributePaths = "orderItems", type = EntityGraph.EntityGraphType.LOAD)
+    List<ArchivedOrder> findByShopkeeperId(Long shopkeeperId);
+
+    @EntityGraph(attributePaths = "orderItems", type = EntityGraph.EntityGraphType.LOAD)
+    List<ArchivedOrder> findByVendorId(Long vendorId);
+
+    @Override
+    @EntityGraph(attributePaths = "orderItems", type = EntityGraph.EntityGraphType.LOAD)
+    List<ArchivedOrder> findAll();
+
+    @Query(SUMMARY_SELECT + "WHERE v.id = :vendorId AND o.id < :beforeId ORDER BY o.id DESC")
+    List<OrderSummaryDto> findSummariesByVendorId(@Param("vendorId") Long vendorId,
+                                                  @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE s.id = :shopkeeperId AND o.id < :beforeId ORDER BY o.id DESC")
+    List<OrderSummaryDto> findSummariesByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId,
+                                                      @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT DISTINCT o FROM ArchivedOrder o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product p "
+            + "LEFT JOIN FETCH p.vendor LEFT JOIN FETCH p.subCategory WHERE o.id = :id")
+    Optional<ArchivedOrder> findWithItemsById(@Param("id") Long id);
+
+    // Dashboard stats over archived orders
+    Long countByVendorId(Long vendorId);
+
+    @Query("SELECT new com.cdac.dto.StatusAggregateDto(o.status, COUNT(o), SUM(o.totalAmount)) "
+            + "FROM ArchivedOrder o WHERE o.vendor.id = :vendorId GROUP BY o.status")
+    List<StatusAggregateDto> aggregateByVendorId(@Param("vendorId") Long vendorId);
+
+    @Query("SELECT SUM(o.totalAmount) FROM ArchivedOrder o WHERE o.vendor.id = :vendorId")
+    BigDecimal sumTotalAmountByVendorId(@Param("vendorId") Long vendorId);
+
+    Long countByShopkeeperId(Long shopkeeperId);
+
+    @Query("SELECT new com.cdac.dto.StatusAggregateDto(o.status, COUNT(o), SUM(o.totalAmount)) "
+            + "FROM ArchivedOrder o WHERE o.shopkeeper.id = :shopkeeperId GROUP BY o.status")
+    List<StatusAggregateDto> aggregateByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId);
+
+    @Query("SELECT SUM(o.totalAmount) FROM ArchivedOrder o WHERE o.shopkeeper.id = :shopkeeperId")
+    BigDecimal sumTotalAmountByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId);
+
+    // Items first: they reference the archived orders
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedOrderItem i WHERE i.order.id IN (SELECT o.id FROM ArchivedOrder o WHERE o.vendor.id = :vendorId)")
+    void deleteItemsByVendorId(@Param("vendorId") Long vendorId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedOrder o WHERE o.vendor.id = :vendorId")
+    void deleteByVendorId(@Param("vendorId") Long vendorId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedOrderItem i WHERE i.order.id IN (SELECT o.id FROM ArchivedOrder o WHERE o.shopkeeper.id = :shopkeeperId)")
+    void deleteItemsByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedOrder o WHERE o.shopkeeper.id = :shopkeeperId")
+    void deleteByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId);
+
+    // Shopkeeper spend analytics; cancelled orders are not spend
+    @Query("SELECT new com.cdac.dto.VendorSpendDto(v.id, v.shopName, COUNT(o), SUM(o.totalAmount)) "
+            + "FROM ArchivedOrder o JOIN o.vendor v WHERE o.shopkeeper.id = :shopkeeperId "
+            + "AND o.status <> com.cdac.entity.OrderStatus.CANCELLED GROUP BY v.id, v.shopName")
+    List<VendorSpendDto> sumSpendByVendor(@Param("shopkeeperId") Long shopkeeperId);
+
+    @Query("SELECT new com.cdac.dto.MonthlySpendDto(YEAR(o.orderDate), MONTH(o.orderDate), COUNT(o), SUM(o.totalAmount)) "
+            + "FROM ArchivedOrder o WHERE o.shopkeeper.id = :shopkeeperId AND o.orderDate >= :since "
+            + "AND o.status <> com.cdac.entity.OrderStatus.CANCELLED GROUP BY YEAR(o.orderDate), MONTH(o.orderDate)")
+    List<MonthlySpendDto> sumSpendByMonth(@Param("shopkeeperId") Long shopkeeperId,
+                                          @Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.cdac.dto.CategorySalesDto(c.id, c.name, SUM(oi.quantity), SUM(oi.price * oi.quantity)) "
+            + "FROM ArchivedOrderItem oi JOIN oi.order o JOIN oi.product p JOIN p.subCategory s JOIN s.category c "
+            + "WHERE o.shopkeeper.id = :shopkeeperId AND o.status <> com.cdac.entity.OrderStatus.CANCELLED "
+            + "GROUP BY c.id, c.name")
+    List<CategorySalesDto> sumArchivedSpendByCategory(@Param("shopkeeperId") Long shopkeeperId);
+
+    @Query("SELECT new com.cdac.dto.ProductSpendDto(p.id, p.name, SUM(oi.quantity), SUM(oi.price * oi.quantity)) "
+            + "FROM ArchivedOrderItem oi JOIN oi.order o JOIN oi.product p "
+            + "WHERE o.shopkeeper.id = :shopkeeperId AND o.status <> com.cdac.entity.OrderStatus.CANCELLED "
+            + "GROUP BY p.id, p.name")
+    List<ProductSpendDto> sumArchivedSpendByProduct(@Param("shopkeeperId") Long shopkeeperId);
+}
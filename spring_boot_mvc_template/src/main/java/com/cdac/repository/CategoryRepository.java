@@ -1,7 +1,18 @@
 package com.cdac.repository;
 
 import com.cdac.entity.Category;
+import com.cdac.entity.ImageVariants;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    // Only applies if the photo has not been replaced while the variants were being generated
+    @Modifying
+    @Transactional
+    @Query("UPDATE Category e SET e.imageVariants = :variants WHERE e.id = :id AND e.photo = :photo")
+    int updateImageVariants(@Param("id") Long id, @Param("photo") String photo, @Param("variants") ImageVariants variants);
 }
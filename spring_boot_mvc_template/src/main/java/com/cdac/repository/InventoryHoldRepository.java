@@ -0,0 +1,7 @@
+package com.cdac.repository;
+
+import com.cdac.entity.InventoryHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface InventoryHoldRepository extends JpaRepository<InventoryHold, Long> {
+}
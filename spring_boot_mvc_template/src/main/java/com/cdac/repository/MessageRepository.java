@@ -1,11 +1,31 @@
 package com.cdac.repository;
 
+import com.cdac.dto.MessageSummaryDto;
 import com.cdac.entity.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    List<Message> findByChatRoomIdOrderByTimestampAsc(Long chatRoomId);
+
+    String SUMMARY_SELECT = "SELECT new com.cdac.dto.MessageSummaryDto(m.id, m.chatRoom.id, u.id, u.name, m.content, "
+            + "m.messageType, m.timestamp, o.id, o.status, o.totalAmount) "
+            + "FROM Message m JOIN m.sender u LEFT JOIN m.order o ";
+
+    // Keyset-paginated history, newest first; served by idx_message_room_timestamp
+    @Query(SUMMARY_SELECT + "WHERE m.chatRoom.id = :chatRoomId ORDER BY m.timestamp DESC, m.id DESC")
+    List<MessageSummaryDto> findLatestSummaries(@Param("chatRoomId") Long chatRoomId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE m.chatRoom.id = :chatRoomId "
+            + "AND (m.timestamp < :beforeTimestamp OR (m.timestamp = :beforeTimestamp AND m.id < :beforeId)) "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    List<MessageSummaryDto> findSummariesBefore(@Param("chatRoomId") Long chatRoomId,
+                                                @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                                @Param("beforeId") Long beforeId, Limit limit);
     
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.transaction.annotation.Transactional
@@ -1,7 +1,40 @@
 package com.cdac.repository;
 
+import com.cdac.dto.CategorySalesDto;
+import com.cdac.dto.ProductSaleDto;
+import com.cdac.dto.ProductSpendDto;
 import com.cdac.entity.OrderItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("SELECT new com.cdac.dto.ProductSaleDto(p.id, s.category.id, o.orderDate, oi.quantity) "
+            + "FROM OrderItem oi JOIN oi.order o JOIN oi.product p JOIN p.subCategory s "
+            + "WHERE o.orderDate >= :since AND o.orderType = com.cdac.entity.OrderType.DIRECT "
+            + "AND o.status <> com.cdac.entity.OrderStatus.CANCELLED")
+    List<ProductSaleDto> findDirectSalesSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.cdac.dto.CategorySalesDto(c.id, c.name, SUM(oi.quantity), SUM(oi.price * oi.quantity)) "
+            + "FROM OrderItem oi JOIN oi.order o JOIN oi.product p JOIN p.subCategory s JOIN s.category c "
+            + "WHERE o.orderDate >= :since AND o.status <> com.cdac.entity.OrderStatus.CANCELLED "
+            + "GROUP BY c.id, c.name ORDER BY SUM(oi.price * oi.quantity) DESC")
+    List<CategorySalesDto> findTopCategoriesSince(@Param("since") LocalDateTime since, Limit limit);
+
+    @Query("SELECT new com.cdac.dto.CategorySalesDto(c.id, c.name, SUM(oi.quantity), SUM(oi.price * oi.quantity)) "
+            + "FROM OrderItem oi JOIN oi.order o JOIN oi.product p JOIN p.subCategory s JOIN s.category c "
+            + "WHERE o.shopkeeper.id = :shopkeeperId AND o.status <> com.cdac.entity.OrderStatus.CANCELLED "
+            + "GROUP BY c.id, c.name")
+    List<CategorySalesDto> sumSpendByCategory(@Param("shopkeeperId") Long shopkeeperId);
+
+    @Query("SELECT new com.cdac.dto.ProductSpendDto(p.id, p.name, SUM(oi.quantity), SUM(oi.price * oi.quantity)) "
+            + "FROM OrderItem oi JOIN oi.order o JOIN oi.product p "
+            + "WHERE o.shopkeeper.id = :shopkeeperId AND o.status <> com.cdac.entity.OrderStatus.CANCELLED "
+            + "GROUP BY p.id, p.name")
+    List<ProductSpendDto> sumSpendByProduct(@Param("shopkeeperId") Long shopkeeperId);
 }
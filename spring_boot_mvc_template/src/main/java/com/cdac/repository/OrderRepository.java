@@ -1,20 +1,79 @@
 package com.cdac.repository;
 
+import com.cdac.dto.MonthlySpendDto;
+import com.cdac.dto.OrderSummaryDto;
+import com.cdac.dto.StatusAggregateDto;
+import com.cdac.dto.VendorSpendDto;
 import com.cdac.entity.Order;
+import org.springframework.data.domain.Limit;
+import com.cdac.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    String SUMMARY_SELECT = "SELECT new com.cdac.dto.OrderSummaryDto(o.id, o.orderDate, o.status, o.orderType, "
+            + "o.totalAmount, (SELECT COUNT(i) FROM OrderItem i WHERE i.order = o), v.id, v.shopName, s.id, s.shopName) "
+            + "FROM Order o JOIN o.vendor v JOIN o.shopkeeper s ";
+
+    // Full order graphs for the legacy list endpoints; prefer the summary pages below
+    @EntityGraph(attributePaths = "orderItems", type = EntityGraph.EntityGraphType.LOAD)
     List<Order> findByShopkeeperId(Long shopkeeperId);
+
+    @EntityGraph(attributePaths = "orderItems", type = EntityGraph.EntityGraphType.LOAD)
     List<Order> findByVendorId(Long vendorId);
 
+    @Override
+    @EntityGraph(attributePaths = "orderItems", type = EntityGraph.EntityGraphType.LOAD)
+    List<Order> findAll();
+
+    // Keyset-paginated order history, newest first
+    @Query(SUMMARY_SELECT + "WHERE v.id = :vendorId AND o.id < :beforeId ORDER BY o.id DESC")
+    List<OrderSummaryDto> findSummariesByVendorId(@Param("vendorId") Long vendorId,
+                                                  @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE s.id = :shopkeeperId AND o.id < :beforeId ORDER BY o.id DESC")
+    List<OrderSummaryDto> findSummariesByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId,
+                                                      @Param("beforeId") Long beforeId, Limit limit);
+
+    // One order with its items and their products, in a single query
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product p "
+            + "LEFT JOIN FETCH p.vendor LEFT JOIN FETCH p.subCategory WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    // Locks a vendor's orders (in id order, so concurrent batches cannot deadlock) ahead of a bulk status change
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o JOIN FETCH o.vendor v JOIN FETCH o.shopkeeper "
+            + "WHERE o.id IN :ids AND v.id = :vendorId ORDER BY o.id")
+    List<Order> findForStatusChange(@Param("vendorId") Long vendorId, @Param("ids") Collection<Long> ids);
+
+    // Only moves orders that are still in one of the given statuses
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Order o SET o.status = :status, o.version = o.version + 1 WHERE o.id IN :ids AND o.status IN :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from,
+                         @Param("status") OrderStatus status);
+
     // Dashboard Stats
     Long countByVendorId(Long vendorId);
     
     @org.springframework.data.jpa.repository.Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.vendor.id = :vendorId")
     java.math.BigDecimal sumTotalAmountByVendorId(@org.springframework.data.repository.query.Param("vendorId") Long vendorId);
 
-    Long countByVendorIdAndStatus(Long vendorId, String status);
+    @Query("SELECT new com.cdac.dto.StatusAggregateDto(o.status, COUNT(o), SUM(o.totalAmount)) "
+            + "FROM Order o WHERE o.vendor.id = :vendorId GROUP BY o.status")
+    List<StatusAggregateDto> aggregateByVendorId(@Param("vendorId") Long vendorId);
 
     // Shopkeeper Dashboard Stats
     Long countByShopkeeperId(Long shopkeeperId);
@@ -22,7 +81,9 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @org.springframework.data.jpa.repository.Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.shopkeeper.id = :shopkeeperId")
     java.math.BigDecimal sumTotalAmountByShopkeeperId(@org.springframework.data.repository.query.Param("shopkeeperId") Long shopkeeperId);
 
-    Long countByShopkeeperIdAndStatus(Long shopkeeperId, String status);
+    @Query("SELECT new com.cdac.dto.StatusAggregateDto(o.status, COUNT(o), SUM(o.totalAmount)) "
+            + "FROM Order o WHERE o.shopkeeper.id = :shopkeeperId GROUP BY o.status")
+    List<StatusAggregateDto> aggregateByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId);
     
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.transaction.annotation.Transactional
@@ -31,4 +92,16 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.transaction.annotation.Transactional
     void deleteByShopkeeperId(Long shopkeeperId);
+
+    // Shopkeeper spend analytics; cancelled orders are not spend
+    @Query("SELECT new com.cdac.dto.VendorSpendDto(v.id, v.shopName, COUNT(o), SUM(o.totalAmount)) "
+            + "FROM Order o JOIN o.vendor v WHERE o.shopkeeper.id = :shopkeeperId "
+            + "AND o.status <> com.cdac.entity.OrderStatus.CANCELLED GROUP BY v.id, v.shopName")
+    List<VendorSpendDto> sumSpendByVendor(@Param("shopkeeperId") Long shopkeeperId);
+
+    @Query("SELECT new com.cdac.dto.MonthlySpendDto(YEAR(o.orderDate), MONTH(o.orderDate), COUNT(o), SUM(o.totalAmount)) "
+            + "FROM Order o WHERE o.shopkeeper.id = :shopkeeperId AND o.orderDate >= :since "
+            + "AND o.status <> com.cdac.entity.OrderStatus.CANCELLED GROUP BY YEAR(o.orderDate), MONTH(o.orderDate)")
+    List<MonthlySpendDto> sumSpendByMonth(@Param("shopkeeperId") Long shopkeeperId,
+                                          @Param("since") LocalDateTime since);
 }
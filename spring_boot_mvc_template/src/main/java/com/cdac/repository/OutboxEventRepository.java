@@ -0,0 +1,14 @@
+package com.cdac.repository;
+
+import com.cdac.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query("SELECT e FROM OutboxEvent e WHERE e.aggregateId NOT IN "
+            + "(SELECT p.aggregateId FROM OutboxEvent p WHERE p.parked = true) ORDER BY e.id")
+    List<OutboxEvent> findDeliverable(Limit limit);
+}
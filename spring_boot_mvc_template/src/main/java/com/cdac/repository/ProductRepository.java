@@ -1,16 +1,70 @@
 package com.cdac.repository;
 
+import com.cdac.dto.ProductListingDto;
+import com.cdac.dto.ProductSummaryDto;
+import com.cdac.entity.ImageVariants;
 import com.cdac.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    String SUMMARY_SELECT = "SELECT new com.cdac.dto.ProductSummaryDto(p.id, p.name, p.description, p.price, "
+            + "p.discount, p.stockQuantity, p.imageUrl, p.imageVariants, s.id, s.name, v.id, v.shopName) "
+            + "FROM Product p JOIN p.subCategory s JOIN p.vendor v ";
+
+    String LISTING_SELECT = "SELECT new com.cdac.dto.ProductListingDto(p.id, p.name, p.price, p.discount, "
+            + "p.stockQuantity, p.imageUrl, p.imageVariants, p.subCategory.id, p.vendor.id) FROM Product p ";
+
     List<Product> findBySubCategoryId(Long subCategoryId);
     List<Product> findByVendorId(Long vendorId);
     List<Product> findBySubCategoryCategoryId(Long categoryId);
-    List<Product> findTop10ByOrderByIdDesc();
     
     Long countByVendorId(Long vendorId);
+
+    // Keyset-paginated catalog projections
+    @Query(SUMMARY_SELECT + "WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<ProductSummaryDto> findSummariesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id < :beforeId ORDER BY p.id DESC")
+    List<ProductSummaryDto> findSummariesBeforeId(@Param("beforeId") Long beforeId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE s.category.id = :categoryId ORDER BY p.id DESC")
+    List<ProductSummaryDto> findNewestSummariesByCategoryId(@Param("categoryId") Long categoryId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummaryDto> findSummariesOrderByPrice(Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.price > :price OR (p.price = :price AND p.id > :afterId) "
+            + "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummaryDto> findSummariesAfterPrice(@Param("price") BigDecimal price,
+                                                    @Param("afterId") Long afterId, Limit limit);
+
+    // Lean listing projections; vendor and sub-category summaries are loaded separately per page
+    @Query(LISTING_SELECT + "WHERE p.subCategory.id = :subCategoryId AND p.id > :afterId ORDER BY p.id ASC")
+    List<ProductListingDto> findListingsBySubCategoryId(@Param("subCategoryId") Long subCategoryId,
+                                                        @Param("afterId") Long afterId, Limit limit);
+
+    @Query(LISTING_SELECT + "WHERE p.subCategory.category.id = :categoryId AND p.id > :afterId ORDER BY p.id ASC")
+    List<ProductListingDto> findListingsByCategoryId(@Param("categoryId") Long categoryId,
+                                                     @Param("afterId") Long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<ProductSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Only applies if the imageUrl has not been replaced while the variants were being generated
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product e SET e.imageVariants = :variants WHERE e.id = :id AND e.imageUrl = :imageUrl")
+    int updateImageVariants(@Param("id") Long id, @Param("imageUrl") String imageUrl, @Param("variants") ImageVariants variants);
     
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.transaction.annotation.Transactional
@@ -0,0 +1,40 @@
+package com.cdac.repository;
+
+import com.cdac.dto.RevenuePointDto;
+import com.cdac.entity.OrderStatus;
+import com.cdac.entity.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+
+    @Query("SELECT new com.cdac.dto.RevenuePointDto(r.orderDay, SUM(r.orderCount), SUM(r.totalAmount)) "
+            + "FROM RevenueRollup r WHERE r.vendorId = :vendorId AND r.orderDay BETWEEN :from AND :to "
+            + "AND r.status IN :statuses GROUP BY r.orderDay ORDER BY r.orderDay")
+    List<RevenuePointDto> sumDailyByVendorId(@Param("vendorId") Long vendorId, @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to,
+                                             @Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("SELECT new com.cdac.dto.RevenuePointDto(r.orderDay, SUM(r.orderCount), SUM(r.totalAmount)) "
+            + "FROM RevenueRollup r WHERE r.shopkeeperId = :shopkeeperId AND r.orderDay BETWEEN :from AND :to "
+            + "AND r.status IN :statuses GROUP BY r.orderDay ORDER BY r.orderDay")
+    List<RevenuePointDto> sumDailyByShopkeeperId(@Param("shopkeeperId") Long shopkeeperId,
+                                                 @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                 @Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM RevenueRollup r "
+            + "WHERE r.status <> com.cdac.entity.OrderStatus.CANCELLED")
+    BigDecimal sumGrossMerchandiseValue();
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM RevenueRollup r WHERE r.orderDay = :day")
+    long countOrdersOn(@Param("day") LocalDate day);
+
+    @Query("SELECT COUNT(DISTINCT r.vendorId) FROM RevenueRollup r WHERE r.orderDay >= :since AND r.orderCount > 0")
+    long countActiveVendorsSince(@Param("since") LocalDate since);
+}
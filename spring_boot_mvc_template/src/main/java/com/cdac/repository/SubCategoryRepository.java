@@ -1,9 +1,29 @@
 package com.cdac.repository;
 
+import com.cdac.dto.SubCategorySummaryDto;
+import com.cdac.entity.ImageVariants;
 import com.cdac.entity.SubCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface SubCategoryRepository extends JpaRepository<SubCategory, Long> {
     List<SubCategory> findByCategoryId(Long categoryId);
+
+    @Query("SELECT s.id FROM SubCategory s")
+    List<Long> findAllIds();
+
+    @Query("SELECT new com.cdac.dto.SubCategorySummaryDto(s.id, s.name, s.category.id) FROM SubCategory s WHERE s.id IN :ids")
+    List<SubCategorySummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Only applies if the photo has not been replaced while the variants were being generated
+    @Modifying
+    @Transactional
+    @Query("UPDATE SubCategory e SET e.imageVariants = :variants WHERE e.id = :id AND e.photo = :photo")
+    int updateImageVariants(@Param("id") Long id, @Param("photo") String photo, @Param("variants") ImageVariants variants);
 }
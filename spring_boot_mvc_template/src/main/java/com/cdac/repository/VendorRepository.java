@@ -1,7 +1,16 @@
 package com.cdac.repository;
 
+import com.cdac.dto.VendorSummaryDto;
 import com.cdac.entity.Vendor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface VendorRepository extends JpaRepository<Vendor, Long> {
+
+    @Query("SELECT new com.cdac.dto.VendorSummaryDto(v.id, v.shopName) FROM Vendor v WHERE v.id IN :ids")
+    List<VendorSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,70 @@
+package com.cdac.service;
+
+import com.cdac.dto.AdminStatsDto;
+import com.cdac.repository.ArchivedOrderRepository;
+import com.cdac.repository.OrderItemRepository;
+import com.cdac.repository.OrderRepository;
+import com.cdac.repository.RevenueRollupRepository;
+import com.cdac.repository.ShopkeeperRepository;
+import com.cdac.repository.VendorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the admin dashboard figures from count and sum queries and keeps the
+ * latest snapshot in memory. Order value and activity come from the daily
+ * revenue rollups; top categories from the last ACTIVE_DAYS days of order lines.
+ */
+@Service
+public class AdminStatsService {
+
+    private static final int ACTIVE_DAYS = 30;
+    private static final int TOP_CATEGORIES = 5;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private ShopkeeperRepository shopkeeperRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private volatile AdminStatsDto snapshot;
+
+    public AdminStatsDto getStats() {
+        AdminStatsDto current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${admin.stats.refresh-millis:60000}")
+    public synchronized AdminStatsDto refresh() {
+        LocalDate today = LocalDate.now();
+        AdminStatsDto stats = new AdminStatsDto(
+                vendorRepository.count(),
+                shopkeeperRepository.count(),
+                orderRepository.count() + archivedOrderRepository.count(),
+                revenueRollupRepository.sumGrossMerchandiseValue(),
+                revenueRollupRepository.countOrdersOn(today),
+                revenueRollupRepository.countActiveVendorsSince(today.minusDays(ACTIVE_DAYS - 1)),
+                orderItemRepository.findTopCategoriesSince(today.minusDays(ACTIVE_DAYS - 1).atStartOfDay(),
+                        Limit.of(TOP_CATEGORIES)),
+                LocalDateTime.now());
+        snapshot = stats;
+        return stats;
+    }
+}
@@ -25,6 +25,9 @@ public class CartService {
     @Autowired
     private ShopkeeperRepository shopkeeperRepository;
 
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
     @Transactional
     public void addToCart(Long shopkeeperId, Long productId, Integer quantity) {
         Shopkeeper shopkeeper = shopkeeperRepository.findById(shopkeeperId)
@@ -33,12 +36,20 @@ public class CartService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+
         // Check if product already in cart
         Optional<Cart> existingCart = cartRepository.findByShopkeeperIdAndProductId(shopkeeperId, productId);
+
+        // Hold the whole cart quantity; fails fast when other carts already hold the stock
+        int cartQuantity = existingCart.map(Cart::getQuantity).orElse(0) + quantity;
+        inventoryReservationService.reserve(productId, shopkeeperId, cartQuantity, product.getStockQuantity());
         
         if (existingCart.isPresent()) {
             Cart cart = existingCart.get();
-            cart.setQuantity(cart.getQuantity() + quantity);
+            cart.setQuantity(cartQuantity);
             cartRepository.save(cart);
         } else {
             Cart cart = new Cart();
@@ -56,5 +67,6 @@ public class CartService {
     @Transactional
     public void clearCart(Long shopkeeperId) {
         cartRepository.deleteByShopkeeperId(shopkeeperId);
+        inventoryReservationService.releaseAllAfterCommit(shopkeeperId);
     }
 }
\ No newline at end of file
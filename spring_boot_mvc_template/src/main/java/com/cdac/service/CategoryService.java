@@ -4,10 +4,16 @@ import com.cdac.entity.Category;
 import com.cdac.entity.SubCategory;
 import com.cdac.repository.CategoryRepository;
 import com.cdac.repository.SubCategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class CategoryService {
@@ -21,10 +27,83 @@ public class CategoryService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Bumped by every category/sub-category mutation; a snapshot is only served while its version is current
+    private final AtomicLong treeVersion = new AtomicLong();
+    private volatile CategoryTreeSnapshot treeSnapshot;
+
+    /**
+     * Pre-serialized category tree, shared by every request until the tree changes.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class CategoryTreeSnapshot {
+        private long version;
+        private String etag;
+        private byte[] json;
+    }
+
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
+    public CategoryTreeSnapshot getCategoryTree() {
+        CategoryTreeSnapshot snapshot = treeSnapshot;
+        if (snapshot != null && snapshot.getVersion() == treeVersion.get()) {
+            return snapshot;
+        }
+        synchronized (this) {
+            // Read the version before loading so a concurrent mutation always forces another rebuild
+            long version = treeVersion.get();
+            snapshot = treeSnapshot;
+            if (snapshot != null && snapshot.getVersion() == version) {
+                return snapshot;
+            }
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(categoryRepository.findAll());
+                String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+                snapshot = new CategoryTreeSnapshot(version, etag, json);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize category tree: " + e.getMessage());
+            }
+            treeSnapshot = snapshot;
+            return snapshot;
+        }
+    }
+
+    private void invalidateCategoryTree() {
+        treeVersion.incrementAndGet();
+    }
+
+    private void generateImageVariants(Category category) {
+        Long id = category.getId();
+        String photo = category.getPhoto();
+        imageVariantService.generateLater(photo, variants -> {
+            if (categoryRepository.updateImageVariants(id, photo, variants) == 0) {
+                imageVariantService.delete(variants);
+            } else {
+                invalidateCategoryTree();
+            }
+        });
+    }
+
+    private void generateImageVariants(SubCategory subCategory) {
+        Long id = subCategory.getId();
+        String photo = subCategory.getPhoto();
+        imageVariantService.generateLater(photo, variants -> {
+            if (subCategoryRepository.updateImageVariants(id, photo, variants) == 0) {
+                imageVariantService.delete(variants);
+            } else {
+                invalidateCategoryTree();
+            }
+        });
+    }
+
     public Category createCategory(com.cdac.dto.CategoryDto dto, org.springframework.web.multipart.MultipartFile photo) {
         Category category = new Category();
         category.setName(dto.getName());
@@ -37,7 +116,10 @@ public class CategoryService {
         }
         
         try {
-            return categoryRepository.save(category);
+            Category saved = categoryRepository.save(category);
+            invalidateCategoryTree();
+            generateImageVariants(saved);
+            return saved;
         } catch (Exception e) {
             // If DB save fails, cleanup the file
             if (photoUrl != null) {
@@ -63,7 +145,10 @@ public class CategoryService {
         }
         
         try {
-            return subCategoryRepository.save(subCategory);
+            SubCategory saved = subCategoryRepository.save(subCategory);
+            invalidateCategoryTree();
+            generateImageVariants(saved);
+            return saved;
         } catch (Exception e) {
              if (photoUrl != null) {
                 fileStorageService.delete(photoUrl);
@@ -94,12 +179,19 @@ public class CategoryService {
             if (category.getPhoto() != null) {
                 fileStorageService.delete(category.getPhoto());
             }
+            imageVariantService.delete(category.getImageVariants());
+            category.setImageVariants(null);
             // Store new photo
             String photoUrl = fileStorageService.store(photo);
             category.setPhoto(photoUrl);
         }
         
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        invalidateCategoryTree();
+        if (photo != null && !photo.isEmpty()) {
+            generateImageVariants(saved);
+        }
+        return saved;
     }
 
     public SubCategory updateSubCategory(Long id, com.cdac.dto.SubCategoryDto dto, org.springframework.web.multipart.MultipartFile photo) {
@@ -123,12 +215,19 @@ public class CategoryService {
             if (subCategory.getPhoto() != null) {
                 fileStorageService.delete(subCategory.getPhoto());
             }
+            imageVariantService.delete(subCategory.getImageVariants());
+            subCategory.setImageVariants(null);
             // Store new photo
             String photoUrl = fileStorageService.store(photo);
             subCategory.setPhoto(photoUrl);
         }
         
-        return subCategoryRepository.save(subCategory);
+        SubCategory saved = subCategoryRepository.save(subCategory);
+        invalidateCategoryTree();
+        if (photo != null && !photo.isEmpty()) {
+            generateImageVariants(saved);
+        }
+        return saved;
     }
 
     public void deleteCategory(Long id) {
@@ -139,6 +238,7 @@ public class CategoryService {
         if (category.getPhoto() != null) {
             fileStorageService.delete(category.getPhoto());
         }
+        imageVariantService.delete(category.getImageVariants());
         
         // Also delete photos of subcategories? 
         // Logic: if CascadeType.ALL is set, subcategories are deleted efficiently by DB.
@@ -148,9 +248,11 @@ public class CategoryService {
             if (sub.getPhoto() != null) {
                 fileStorageService.delete(sub.getPhoto());
             }
+            imageVariantService.delete(sub.getImageVariants());
         }
         
         categoryRepository.deleteById(id);
+        invalidateCategoryTree();
     }
 
     public void deleteSubCategory(Long id) {
@@ -160,7 +262,9 @@ public class CategoryService {
         if (subCategory.getPhoto() != null) {
             fileStorageService.delete(subCategory.getPhoto());
         }
+        imageVariantService.delete(subCategory.getImageVariants());
         
         subCategoryRepository.deleteById(id);
+        invalidateCategoryTree();
     }
 }
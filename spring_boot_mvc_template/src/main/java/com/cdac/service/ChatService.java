@@ -1,19 +1,27 @@
 package com.cdac.service;
 
 import com.cdac.dto.MessageDto;
+import com.cdac.dto.MessagePageDto;
+import com.cdac.dto.MessageSummaryDto;
 import com.cdac.entity.*;
 import com.cdac.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 @Transactional
 public class ChatService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ChatRoomRepository chatRoomRepository;
 
@@ -78,13 +86,37 @@ public class ChatService {
         return messageRepository.save(message);
     }
 
-    public List<Message> getMessages(Long chatRoomId) {
-        return messageRepository.findByChatRoomIdOrderByTimestampAsc(chatRoomId);
+    /**
+     * The latest limit messages of the room, or the limit messages before the cursor
+     * of a previous page. Items are returned oldest first, ready to prepend.
+     */
+    @Transactional(readOnly = true)
+    public MessagePageDto getMessagePage(Long chatRoomId, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<MessageSummaryDto> rows;
+        if (before == null) {
+            rows = messageRepository.findLatestSummaries(chatRoomId, fetchLimit);
+        } else {
+            String[] parts = CursorCodec.decode(before, 2);
+            try {
+                rows = messageRepository.findSummariesBefore(chatRoomId, LocalDateTime.parse(parts[0]),
+                        Long.parseLong(parts[1]), fetchLimit);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<MessageSummaryDto> items = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        MessageSummaryDto oldest = items.isEmpty() ? null : items.get(items.size() - 1);
+        String nextCursor = hasMore ? CursorCodec.encode(oldest.getTimestamp().toString(), oldest.getId().toString()) : null;
+        Collections.reverse(items);
+        return new MessagePageDto(items, nextCursor, hasMore);
     }
     
     // Additional repositories needed for estimation/invoice
     @Autowired
-    private ProductRepository productRepository;
+    private OrderService orderService;
     
     // Create order from estimation message
     public Message sendEstimation(Long chatRoomId, Long senderId, com.cdac.dto.OrderRequestDto orderDto) {
@@ -107,9 +139,9 @@ public class ChatService {
         List<OrderItem> orderItems = new java.util.ArrayList<>();
         java.math.BigDecimal totalAmount = java.math.BigDecimal.ZERO;
         
+        java.util.Map<Long, Product> productsById = orderService.loadProducts(orderDto.getItems());
         for (com.cdac.dto.OrderItemDto itemDto : orderDto.getItems()) {
-            Product product = productRepository.findById(itemDto.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            Product product = productsById.get(itemDto.getProductId());
             
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -123,7 +155,8 @@ public class ChatService {
         
         order.setOrderItems(orderItems);
         order.setTotalAmount(totalAmount);
-        Order savedOrder = orderRepository.save(order);
+        orderService.insertOrders(List.of(order));
+        Order savedOrder = order;
         
         // Create estimation message
         Message message = new Message();
@@ -145,12 +178,8 @@ public class ChatService {
         User sender = userRepository.findById(senderId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        
         // Update order status when invoice is sent
-        order.setStatus(OrderStatus.CONFIRMED);
-        orderRepository.save(order);
+        Order order = orderService.updateOrderStatus(orderId, OrderStatus.CONFIRMED);
         
         // Create invoice message
         Message message = new Message();
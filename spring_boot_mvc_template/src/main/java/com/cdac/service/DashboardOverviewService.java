@@ -0,0 +1,145 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderSummaryDto;
+import com.cdac.dto.OrderTotalsDto;
+import com.cdac.dto.RevenuePointDto;
+import com.cdac.dto.ShopkeeperDashboardOverviewDto;
+import com.cdac.dto.VendorDashboardOverviewDto;
+import com.cdac.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Assembles a whole dashboard by running its independent queries at the same
+ * time, one virtual thread each, under one deadline of
+ * dashboard.overview-timeout-millis. Sections that miss the deadline or fail
+ * are left empty and listed in the response instead of failing the request.
+ * A late section is interrupted, and each section runs in a transaction whose
+ * timeout is the remaining budget, so its statements carry a query timeout and
+ * a slow database sheds the work instead of piling it up behind the deadline.
+ */
+@Service
+public class DashboardOverviewService {
+
+    private static final int RECENT_ORDERS = 5;
+    private static final int TREND_DAYS = 30;
+
+    @Autowired
+    private OrderTotalsService orderTotalsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ExecutorService dashboardExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${dashboard.overview-timeout-millis:1500}")
+    private long timeoutMillis;
+
+    private class FanOut {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        final List<String> missing = new ArrayList<>();
+
+        <T> Future<T> start(Supplier<T> query) {
+            return dashboardExecutor.submit(() -> {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException("Dashboard deadline passed before the query started");
+                }
+                // Transaction timeouts are whole seconds; the interrupt below enforces the exact deadline
+                TransactionTemplate budget = new TransactionTemplate(transactionManager);
+                budget.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + 999_999_999L)));
+                return budget.execute(status -> query.get());
+            });
+        }
+
+        // Waits for the section until the shared deadline; null if it is late or failed
+        <T> T await(String section, Future<T> future) {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                missing.add(section);
+            } catch (ExecutionException e) {
+                System.err.println("Dashboard section " + section + " failed: " + e.getCause().getMessage());
+                missing.add(section);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                missing.add(section);
+            }
+            return null;
+        }
+    }
+
+    public VendorDashboardOverviewDto vendorOverview(Long vendorId) {
+        LocalDate today = LocalDate.now();
+        FanOut fanOut = new FanOut();
+        Future<OrderTotalsDto> totals = fanOut.start(() -> orderTotalsService.forVendor(vendorId));
+        Future<Long> products = fanOut.start(() -> productRepository.countByVendorId(vendorId));
+        Future<List<OrderSummaryDto>> recent = fanOut.start(
+                () -> orderService.getOrderSummariesByVendor(vendorId, null, RECENT_ORDERS).getItems());
+        Future<List<RevenuePointDto>> trend = fanOut.start(() -> revenueRollupService.vendorTrend(
+                vendorId, today.minusDays(TREND_DAYS - 1), today, RevenueRollupService.DAY, null));
+
+        OrderTotalsDto orderTotals = fanOut.await("orderTotals", totals);
+        VendorDashboardOverviewDto overview = new VendorDashboardOverviewDto();
+        overview.setTotalProducts(fanOut.await("totalProducts", products));
+        if (orderTotals != null) {
+            overview.setTotalIncome(orderTotals.getTotalAmount());
+            overview.setTotalOrders(orderTotals.getTotalOrders());
+            overview.setOrderStatusCounts(orderTotals.getStatusCounts());
+        }
+        overview.setRecentOrders(fanOut.await("recentOrders", recent));
+        overview.setIncomeTrend(fanOut.await("incomeTrend", trend));
+        overview.setPartial(!fanOut.missing.isEmpty());
+        overview.setMissing(fanOut.missing);
+        return overview;
+    }
+
+    public ShopkeeperDashboardOverviewDto shopkeeperOverview(Long shopkeeperId) {
+        LocalDate today = LocalDate.now();
+        FanOut fanOut = new FanOut();
+        Future<OrderTotalsDto> totals = fanOut.start(() -> orderTotalsService.forShopkeeper(shopkeeperId));
+        Future<List<OrderSummaryDto>> recent = fanOut.start(
+                () -> orderService.getOrderSummariesByShopkeeper(shopkeeperId, null, RECENT_ORDERS).getItems());
+        Future<List<RevenuePointDto>> trend = fanOut.start(() -> revenueRollupService.shopkeeperTrend(
+                shopkeeperId, today.minusDays(TREND_DAYS - 1), today, RevenueRollupService.DAY, null));
+
+        OrderTotalsDto orderTotals = fanOut.await("orderTotals", totals);
+        ShopkeeperDashboardOverviewDto overview = new ShopkeeperDashboardOverviewDto();
+        if (orderTotals != null) {
+            overview.setTotalSpend(orderTotals.getTotalAmount());
+            overview.setTotalOrders(orderTotals.getTotalOrders());
+            overview.setOrderStatusCounts(orderTotals.getStatusCounts());
+        }
+        overview.setRecentOrders(fanOut.await("recentOrders", recent));
+        overview.setSpendTrend(fanOut.await("spendTrend", trend));
+        overview.setPartial(!fanOut.missing.isEmpty());
+        overview.setMissing(fanOut.missing);
+        return overview;
+    }
+}
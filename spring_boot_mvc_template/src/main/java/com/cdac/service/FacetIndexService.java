@@ -0,0 +1,284 @@
+package com.cdac.service;
+
+import com.cdac.dto.ProductSummaryDto;
+import com.cdac.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps one compressed bitmap per facet value, with each product's id as its
+ * bit position. Ids are handed out in sequence, so the bitmaps stay dense,
+ * and matches come out in product id order, which gives stable pages.
+ *
+ * Filtering ORs the bitmaps of the selected values inside a facet and ANDs
+ * the facets together; facet counts are AND cardinalities against the filter
+ * of every other facet, so selecting a value never hides its siblings.
+ */
+@Service
+public class FacetIndexService {
+
+    public static final String PRICE_BAND = "priceBand";
+    public static final String DISCOUNT_BAND = "discountBand";
+    public static final String IN_STOCK = "inStock";
+    public static final String SUB_CATEGORY = "subCategoryId";
+    public static final String VENDOR = "vendorId";
+
+    private static final String[] FACETS = {PRICE_BAND, DISCOUNT_BAND, IN_STOCK, SUB_CATEGORY, VENDOR};
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+    // Changes made while a rebuild runs, replayed onto the new index; null means removed
+    private Map<Long, ProductSummaryDto> pendingChanges;
+
+    private static class Index {
+        // product id -> facet values, in FACETS order, so an update can clear the old bits
+        final Map<Integer, String[]> valuesByProductId = new HashMap<>();
+        final Map<String, Map<String, RoaringBitmap>> bitmaps = new HashMap<>();
+        final RoaringBitmap live = new RoaringBitmap();
+
+        void put(ProductSummaryDto product) {
+            int position = position(product.getId());
+            clearBits(position);
+
+            String[] values = {
+                    priceBand(product.getPrice()),
+                    discountBand(product.getDiscount()),
+                    String.valueOf(product.getStockQuantity() > 0),
+                    String.valueOf(product.getSubCategoryId()),
+                    String.valueOf(product.getVendorId())
+            };
+            for (int i = 0; i < FACETS.length; i++) {
+                bitmaps.computeIfAbsent(FACETS[i], f -> new HashMap<>())
+                        .computeIfAbsent(values[i], v -> new RoaringBitmap())
+                        .add(position);
+            }
+            valuesByProductId.put(position, values);
+            live.add(position);
+        }
+
+        void remove(Long productId) {
+            int position = position(productId);
+            clearBits(position);
+            live.remove(position);
+        }
+
+        private void clearBits(int position) {
+            String[] previous = valuesByProductId.remove(position);
+            if (previous == null) {
+                return;
+            }
+            for (int i = 0; i < FACETS.length; i++) {
+                Map<String, RoaringBitmap> values = bitmaps.get(FACETS[i]);
+                RoaringBitmap bitmap = values.get(previous[i]);
+                bitmap.remove(position);
+                if (bitmap.isEmpty()) {
+                    values.remove(previous[i]);
+                }
+            }
+        }
+
+        void runOptimize() {
+            for (Map<String, RoaringBitmap> values : bitmaps.values()) {
+                values.values().forEach(RoaringBitmap::runOptimize);
+            }
+            live.runOptimize();
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        private long total;
+        private List<Long> productIds; // ascending
+        private boolean hasMore; // more matches after the last id
+        private Map<String, Map<String, Long>> facets;
+    }
+
+    /**
+     * Builds a new index off to the side and swaps it in, so queries keep using the
+     * old one meanwhile; products changed during the build are replayed onto it first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        boolean complete = false;
+        try {
+            long afterId = 0;
+            while (true) {
+                List<ProductSummaryDto> batch = productRepository.findSummariesAfterId(afterId, Limit.of(REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (ProductSummaryDto product : batch) {
+                    rebuilt.put(product);
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            rebuilt.runOptimize();
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    // These are at least as new as the rows the rebuild read
+                    for (Map.Entry<Long, ProductSummaryDto> change : pendingChanges.entrySet()) {
+                        if (change.getValue() != null) {
+                            rebuilt.put(change.getValue());
+                        } else {
+                            rebuilt.remove(change.getKey());
+                        }
+                    }
+                    index = rebuilt;
+                }
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void index(ProductSummaryDto product) {
+        lock.writeLock().lock();
+        try {
+            index.put(product);
+            if (pendingChanges != null) {
+                pendingChanges.put(product.getId(), product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(productId);
+            if (pendingChanges != null) {
+                pendingChanges.put(productId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param selections facet name -> accepted values; facets absent from the map are unfiltered
+     * @param afterId return only products with a greater id, or from the start if null
+     * @param limit maximum number of product ids to return
+     */
+    public Result query(Map<String, Set<String>> selections, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, RoaringBitmap> facetFilters = new HashMap<>();
+            for (Map.Entry<String, Set<String>> selection : selections.entrySet()) {
+                if (selection.getValue() == null || selection.getValue().isEmpty()) {
+                    continue;
+                }
+                Map<String, RoaringBitmap> values = index.bitmaps.getOrDefault(selection.getKey(), Map.of());
+                RoaringBitmap union = new RoaringBitmap();
+                for (String value : selection.getValue()) {
+                    RoaringBitmap bitmap = values.get(value);
+                    if (bitmap != null) {
+                        union.or(bitmap);
+                    }
+                }
+                facetFilters.put(selection.getKey(), union);
+            }
+
+            RoaringBitmap matches = index.live.clone();
+            for (RoaringBitmap filter : facetFilters.values()) {
+                matches.and(filter);
+            }
+
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                RoaringBitmap base = index.live.clone();
+                for (Map.Entry<String, RoaringBitmap> filter : facetFilters.entrySet()) {
+                    if (!filter.getKey().equals(facet)) {
+                        base.and(filter.getValue());
+                    }
+                }
+                Map<String, Long> valueCounts = new TreeMap<>();
+                for (Map.Entry<String, RoaringBitmap> value : index.bitmaps.getOrDefault(facet, Map.of()).entrySet()) {
+                    long count = RoaringBitmap.andCardinality(base, value.getValue());
+                    if (count > 0) {
+                        valueCounts.put(value.getKey(), count);
+                    }
+                }
+                counts.put(facet, valueCounts);
+            }
+
+            List<Long> productIds = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+            PeekableIntIterator it = matches.getIntIterator();
+            if (afterId != null && afterId >= 0) {
+                if (afterId >= Integer.MAX_VALUE) {
+                    return new Result(matches.getLongCardinality(), productIds, false, counts);
+                }
+                it.advanceIfNeeded((int) (afterId + 1));
+            }
+            while (it.hasNext() && productIds.size() < limit) {
+                productIds.add((long) it.next());
+            }
+            return new Result(matches.getLongCardinality(), productIds, it.hasNext(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int position(Long productId) {
+        if (productId < 0 || productId > Integer.MAX_VALUE) {
+            throw new RuntimeException("Product id " + productId + " is outside the facet index range");
+        }
+        return productId.intValue();
+    }
+
+    static String priceBand(BigDecimal price) {
+        if (price == null) {
+            return "unknown";
+        }
+        double value = price.doubleValue();
+        if (value < 500) return "0-500";
+        if (value < 1000) return "500-1000";
+        if (value < 5000) return "1000-5000";
+        if (value < 20000) return "5000-20000";
+        return "20000+";
+    }
+
+    static String discountBand(int discount) {
+        if (discount <= 0) return "0";
+        if (discount <= 10) return "1-10";
+        if (discount <= 25) return "11-25";
+        if (discount <= 50) return "26-50";
+        return "51+";
+    }
+}
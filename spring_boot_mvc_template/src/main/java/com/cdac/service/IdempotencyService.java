@@ -0,0 +1,130 @@
+package com.cdac.service;
+
+import com.cdac.entity.IdempotencyRecord;
+import com.cdac.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers successful responses by idempotency key.
+ *
+ * Recent records sit in a bounded LRU in front of the idempotency_record
+ * table; both expire after idempotency.ttl-hours. Requests currently being
+ * processed are tracked as futures so a concurrent duplicate can wait for the
+ * first one's response instead of running the operation a second time.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_CACHED = 10_000;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private int ttlHours;
+
+    private final Map<String, IdempotencyRecord> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the stored, unexpired response for the key, or null.
+     */
+    public IdempotencyRecord find(String id) {
+        IdempotencyRecord record;
+        synchronized (recent) {
+            record = recent.get(id);
+        }
+        if (record == null) {
+            record = idempotencyRecordRepository.findById(id).orElse(null);
+            if (record == null) {
+                return null;
+            }
+            cache(record);
+        }
+        return record.getExpiresAt().isAfter(LocalDateTime.now()) ? record : null;
+    }
+
+    /**
+     * Claims the key for this request. Returns null if the caller should process the
+     * request, or the future of the request that is already processing it.
+     */
+    public CompletableFuture<IdempotencyRecord> begin(String id) {
+        CompletableFuture<IdempotencyRecord> claim = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, claim);
+        if (running != null) {
+            return running;
+        }
+        // A duplicate may have finished between the caller's find() and this claim;
+        // complete() stores before it releases the key, so this lookup sees it
+        IdempotencyRecord stored = find(id);
+        if (stored != null) {
+            inFlight.remove(id);
+            claim.complete(stored);
+            return claim;
+        }
+        return null;
+    }
+
+    /**
+     * Publishes the outcome to waiting duplicates; only 2xx responses are kept for later retries.
+     */
+    public void complete(String id, IdempotencyRecord outcome) {
+        try {
+            if (outcome.getStatus() >= 200 && outcome.getStatus() < 300) {
+                outcome.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+                cache(outcome);
+                try {
+                    idempotencyRecordRepository.save(outcome);
+                } catch (RuntimeException e) {
+                    // The in-memory copy still covers retries that reach this instance
+                    System.err.println("Failed to store idempotency record: " + e.getMessage());
+                }
+            }
+        } finally {
+            CompletableFuture<IdempotencyRecord> future = inFlight.remove(id);
+            if (future != null) {
+                future.complete(outcome);
+            }
+        }
+    }
+
+    /**
+     * Releases the key after a failure that produced no response, so waiting duplicates retry.
+     */
+    public void abandon(String id, Throwable cause) {
+        CompletableFuture<IdempotencyRecord> future = inFlight.remove(id);
+        if (future != null) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (recent) {
+            recent.values().removeIf(r -> !r.getExpiresAt().isAfter(now));
+        }
+        idempotencyRecordRepository.deleteExpired(now);
+    }
+
+    private void cache(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.getId(), record);
+        }
+    }
+}
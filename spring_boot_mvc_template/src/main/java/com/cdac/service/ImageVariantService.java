@@ -0,0 +1,217 @@
+package com.cdac.service;
+
+import com.cdac.entity.ImageVariants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Produces thumbnail, card and detail JPEG copies of uploaded photos.
+ *
+ * Work runs on the bounded imageVariantExecutor after the upload's transaction
+ * commits. Variants are written next to the original and named after the
+ * original plus a hash of its bytes, so their URLs change whenever the content
+ * does and can be cached indefinitely. Dimensions are read before decoding:
+ * large photos are subsampled while decoding and huge ones are refused, so a
+ * small but highly compressed file cannot exhaust the heap.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final int THUMBNAIL_SIZE = 150;
+    private static final int CARD_SIZE = 300;
+    private static final int DETAIL_SIZE = 800;
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final long MAX_DECODED_PIXELS = 16_000_000; // about 64 MB as RGB
+    private static final long MAX_SOURCE_PIXELS = 200_000_000;
+
+    @Autowired
+    @Qualifier("imageVariantExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    /**
+     * Queues generation of variants for a stored upload. onReady runs on the worker
+     * thread and should record the variants only if the entity still uses originalUrl.
+     */
+    public void generateLater(String originalUrl, Consumer<ImageVariants> onReady) {
+        if (originalUrl == null || !originalUrl.startsWith("/uploads/")) {
+            return;
+        }
+        Runnable submit = () -> executor.execute(() -> {
+            try {
+                ImageVariants variants = generate(originalUrl);
+                if (variants != null) {
+                    onReady.accept(variants);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to create image variants for " + originalUrl + ": " + e.getMessage());
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    public void delete(ImageVariants variants) {
+        if (variants == null) {
+            return;
+        }
+        for (String url : new String[] {variants.getThumbnailUrl(), variants.getCardUrl(), variants.getDetailUrl()}) {
+            if (url == null) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(toPath(url));
+            } catch (IOException e) {
+                System.err.println("Failed to delete image variant: " + e.getMessage());
+            }
+        }
+    }
+
+    // Returns null when the original is missing or not in a format ImageIO can decode
+    private ImageVariants generate(String originalUrl) throws IOException {
+        Path original = toPath(originalUrl);
+        if (!Files.exists(original)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(original);
+        BufferedImage image = decode(bytes);
+        if (image == null) {
+            return null;
+        }
+
+        String fileName = original.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = (dot > 0 ? fileName.substring(0, dot) : fileName)
+                + "." + DigestUtils.md5DigestAsHex(bytes).substring(0, 12);
+        String urlPrefix = originalUrl.substring(0, originalUrl.lastIndexOf('/') + 1);
+
+        // Each size is scaled from the next larger one, which is cheaper and smoother than from the original
+        BufferedImage detail = resize(image, DETAIL_SIZE);
+        BufferedImage card = resize(detail, CARD_SIZE);
+        BufferedImage thumbnail = resize(card, THUMBNAIL_SIZE);
+        return new ImageVariants(
+                write(thumbnail, original.resolveSibling(baseName + ".thumb.jpg"), urlPrefix),
+                write(card, original.resolveSibling(baseName + ".card.jpg"), urlPrefix),
+                write(detail, original.resolveSibling(baseName + ".detail.jpg"), urlPrefix));
+    }
+
+    // Reads only every n-th pixel of images above MAX_DECODED_PIXELS; the variants are
+    // far smaller than that anyway. Null when no ImageIO reader understands the format
+    private static BufferedImage decode(byte[] bytes) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                long pixels = (long) width * height;
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    throw new RuntimeException("Image of " + width + "x" + height + " pixels is too large");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (pixels > MAX_DECODED_PIXELS) {
+                    int step = (int) Math.ceil(Math.sqrt((double) pixels / MAX_DECODED_PIXELS));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Fits the image inside a size x size box without upscaling; always returns opaque RGB for JPEG
+    private static BufferedImage resize(BufferedImage source, int size) {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        // Halve in steps first; a single bilinear pass over a large ratio drops most of the pixels
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE); // transparent PNG areas become white rather than black
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static String write(BufferedImage image, Path target, String urlPrefix) throws IOException {
+        if (!Files.exists(target)) {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        }
+        return urlPrefix + target.getFileName();
+    }
+
+    private static Path toPath(String url) {
+        // uploads are served from the relative uploads/ directory; imported URLs must not escape it
+        Path path = Paths.get(url.substring(1)).normalize();
+        if (!path.startsWith("uploads")) {
+            throw new RuntimeException("Image path outside uploads: " + url);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,301 @@
+package com.cdac.service;
+
+import com.cdac.entity.InventoryHold;
+import com.cdac.repository.InventoryHoldRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Soft stock reservations for carts, keyed by (product, shopkeeper).
+ *
+ * Adding to a cart places or extends a hold for the cart's quantity. Holds
+ * expire after inventory.hold-minutes unless the cart is touched again; expiry
+ * runs on a hashed timer wheel, so each tick only looks at the holds due in
+ * one slot instead of scanning them all. Available-to-promise is stock minus
+ * the holds of other shopkeepers. The ledger lives in memory and is copied to
+ * the inventory_hold table periodically so it survives a restart.
+ */
+@Service
+public class InventoryReservationService {
+
+    private static final long TICK_MILLIS = 5_000;
+    private static final int WHEEL_SLOTS = 512; // ~42 minutes per revolution at 5s ticks
+
+    @Autowired
+    private InventoryHoldRepository inventoryHoldRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.hold-minutes:15}")
+    private int holdMinutes;
+
+    private static class Hold {
+        final Long productId;
+        final Long shopkeeperId;
+        int quantity;
+        long expiryTick;
+
+        Hold(Long productId, Long shopkeeperId) {
+            this.productId = productId;
+            this.shopkeeperId = shopkeeperId;
+        }
+    }
+
+    // productId -> shopkeeperId -> hold
+    private final Map<Long, Map<Long, Hold>> holdsByProduct = new HashMap<>();
+    private final Map<Long, Integer> heldByProduct = new HashMap<>();
+    private final Map<Long, Set<Hold>> holdsByShopkeeper = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private final Set<Hold>[] wheel = new Set[WHEEL_SLOTS];
+    private final long startMillis = System.currentTimeMillis();
+    private long currentTick;
+    private boolean dirty;
+
+    {
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = new HashSet<>();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<InventoryHold> persisted = inventoryHoldRepository.findAll();
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            for (InventoryHold row : persisted) {
+                if (row.getExpiresAt().isAfter(now)) {
+                    long remainingMillis = toMillis(row.getExpiresAt()) - System.currentTimeMillis();
+                    put(row.getProductId(), row.getShopkeeperId(), row.getQuantity(),
+                            currentTick + Math.max(1, (remainingMillis + TICK_MILLIS - 1) / TICK_MILLIS));
+                }
+            }
+        }
+        System.out.println("Loaded " + persisted.size() + " inventory holds");
+    }
+
+    /**
+     * Sets the shopkeeper's hold on a product to quantity and restarts its TTL.
+     * Throws if the stock not held by other shopkeepers cannot cover it. The hold
+     * applies at once, so concurrent carts cannot both be promised the same units;
+     * if the surrounding transaction rolls back, the previous hold is put back.
+     */
+    public synchronized void reserve(Long productId, Long shopkeeperId, int quantity, int stockQuantity) {
+        int available = stockQuantity - reservedByOthers(productId, shopkeeperId);
+        if (quantity > available) {
+            throw new RuntimeException("Only " + Math.max(0, available) + " units available");
+        }
+        Hold previous = holdsByProduct.getOrDefault(productId, Map.of()).get(shopkeeperId);
+        int previousQuantity = previous == null ? 0 : previous.quantity;
+        long previousExpiryTick = previous == null ? 0 : previous.expiryTick;
+        put(productId, shopkeeperId, quantity, currentTick + ttlTicks());
+        afterRollback(() -> undoReserve(productId, shopkeeperId, quantity, previousQuantity, previousExpiryTick));
+    }
+
+    private synchronized void undoReserve(Long productId, Long shopkeeperId, int reservedQuantity,
+                                          int previousQuantity, long previousExpiryTick) {
+        Hold hold = holdsByProduct.getOrDefault(productId, Map.of()).get(shopkeeperId);
+        if (hold == null || hold.quantity != reservedQuantity) {
+            return; // changed again since, e.g. expired or consumed
+        }
+        if (previousQuantity == 0 || previousExpiryTick <= currentTick) {
+            remove(hold);
+        } else {
+            put(productId, shopkeeperId, previousQuantity, previousExpiryTick);
+        }
+    }
+
+    /**
+     * Units of the product held by carts other than the given shopkeeper's.
+     */
+    public synchronized int reservedByOthers(Long productId, Long shopkeeperId) {
+        int held = heldByProduct.getOrDefault(productId, 0);
+        Hold own = holdsByProduct.getOrDefault(productId, Map.of()).get(shopkeeperId);
+        return own == null ? held : held - own.quantity;
+    }
+
+    public synchronized int reserved(Long productId) {
+        return heldByProduct.getOrDefault(productId, 0);
+    }
+
+    public synchronized void releaseAll(Long shopkeeperId) {
+        Set<Hold> holds = holdsByShopkeeper.get(shopkeeperId);
+        if (holds == null) {
+            return;
+        }
+        for (Hold hold : new ArrayList<>(holds)) {
+            remove(hold);
+        }
+    }
+
+    /**
+     * Releases the shopkeeper's holds once the surrounding transaction commits;
+     * a rolled back checkout keeps them.
+     */
+    public void releaseAllAfterCommit(Long shopkeeperId) {
+        afterCommit(() -> releaseAll(shopkeeperId));
+    }
+
+    /**
+     * Shrinks the shopkeeper's holds by the units an order has just taken from stock,
+     * once the order commits, so the same units are not counted twice.
+     */
+    public void consumeAfterCommit(Long shopkeeperId, Map<Long, Integer> quantities) {
+        afterCommit(() -> consume(shopkeeperId, quantities));
+    }
+
+    private synchronized void consume(Long shopkeeperId, Map<Long, Integer> quantities) {
+        for (Map.Entry<Long, Integer> taken : quantities.entrySet()) {
+            Hold hold = holdsByProduct.getOrDefault(taken.getKey(), Map.of()).get(shopkeeperId);
+            if (hold == null) {
+                continue;
+            }
+            if (hold.quantity <= taken.getValue()) {
+                remove(hold);
+            } else {
+                put(hold.productId, shopkeeperId, hold.quantity - taken.getValue(), hold.expiryTick);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public synchronized void tick() {
+        currentTick++;
+        Iterator<Hold> due = wheel[(int) (currentTick % WHEEL_SLOTS)].iterator();
+        while (due.hasNext()) {
+            Hold hold = due.next();
+            // Holds further out than one revolution share the slot and wait for a later pass
+            if (hold.expiryTick <= currentTick) {
+                due.remove();
+                unlink(hold);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.persist-millis:30000}")
+    public void persist() {
+        List<InventoryHold> rows = new ArrayList<>();
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            for (Map<Long, Hold> holds : holdsByProduct.values()) {
+                for (Hold hold : holds.values()) {
+                    rows.add(new InventoryHold(null, hold.productId, hold.shopkeeperId, hold.quantity,
+                            toDateTime(startMillis + hold.expiryTick * TICK_MILLIS)));
+                }
+            }
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                inventoryHoldRepository.deleteAllInBatch();
+                inventoryHoldRepository.saveAll(rows);
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            System.err.println("Failed to persist inventory holds: " + e.getMessage());
+        }
+    }
+
+    // Caller must hold the monitor
+    private void put(Long productId, Long shopkeeperId, int quantity, long expiryTick) {
+        Map<Long, Hold> holds = holdsByProduct.computeIfAbsent(productId, p -> new HashMap<>());
+        Hold hold = holds.get(shopkeeperId);
+        if (hold == null) {
+            hold = new Hold(productId, shopkeeperId);
+            holds.put(shopkeeperId, hold);
+            holdsByShopkeeper.computeIfAbsent(shopkeeperId, s -> new HashSet<>()).add(hold);
+        } else {
+            wheel[(int) (hold.expiryTick % WHEEL_SLOTS)].remove(hold);
+        }
+        heldByProduct.merge(productId, quantity - hold.quantity, Integer::sum);
+        hold.quantity = quantity;
+        hold.expiryTick = expiryTick;
+        wheel[(int) (expiryTick % WHEEL_SLOTS)].add(hold);
+        dirty = true;
+    }
+
+    private void remove(Hold hold) {
+        wheel[(int) (hold.expiryTick % WHEEL_SLOTS)].remove(hold);
+        unlink(hold);
+    }
+
+    // Drops the hold from every index except the wheel
+    private void unlink(Hold hold) {
+        Map<Long, Hold> holds = holdsByProduct.get(hold.productId);
+        holds.remove(hold.shopkeeperId);
+        if (holds.isEmpty()) {
+            holdsByProduct.remove(hold.productId);
+        }
+        int remaining = heldByProduct.merge(hold.productId, -hold.quantity, Integer::sum);
+        if (remaining == 0) {
+            heldByProduct.remove(hold.productId);
+        }
+        Set<Hold> shopkeeperHolds = holdsByShopkeeper.get(hold.shopkeeperId);
+        shopkeeperHolds.remove(hold);
+        if (shopkeeperHolds.isEmpty()) {
+            holdsByShopkeeper.remove(hold.shopkeeperId);
+        }
+        dirty = true;
+    }
+
+    private long ttlTicks() {
+        return holdMinutes * 60_000L / TICK_MILLIS;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,111 @@
+package com.cdac.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves finished orders out of the hot orders/order_item tables.
+ *
+ * DELIVERED and CANCELLED orders older than orders.archive.after-days are
+ * copied to orders_archive/order_item_archive and deleted, one batch per
+ * transaction. Both statuses are final, so a batch never races a status
+ * change. Runs pause between batches and stop after a fixed number of them,
+ * so the nightly job never holds locks or saturates the database for long.
+ * Orders still referenced by a chat message stay where they are.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final String SELECT_BATCH_SQL = "SELECT o.id FROM orders o "
+            + "WHERE o.status IN ('DELIVERED', 'CANCELLED') AND o.order_date < :cutoff "
+            + "AND NOT EXISTS (SELECT 1 FROM message m WHERE m.order_id = o.id) "
+            + "ORDER BY o.id LIMIT :limit";
+    private static final String COPY_ORDERS_SQL = "INSERT INTO orders_archive "
+            + "(id, shopkeeper_id, vendor_id, total_amount, status, order_type, chat_room_id, transaction_id, order_date, version, archived_at) "
+            + "SELECT id, shopkeeper_id, vendor_id, total_amount, status, order_type, chat_room_id, transaction_id, order_date, version, :now "
+            + "FROM orders WHERE id IN (:ids)";
+    private static final String COPY_ITEMS_SQL = "INSERT INTO order_item_archive (id, order_id, product_id, quantity, price) "
+            + "SELECT id, order_id, product_id, quantity, price FROM order_item WHERE order_id IN (:ids)";
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM order_item WHERE order_id IN (:ids)";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM orders WHERE id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.archive.after-days:180}")
+    private int afterDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.archive.max-batches:200}")
+    private int maxBatches;
+
+    @Value("${orders.archive.pause-millis:250}")
+    private long pauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        archiveOldOrders();
+    }
+
+    /**
+     * Archives up to max-batches batches and returns the number of orders moved.
+     */
+    public int archiveOldOrders() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Order archival is already running");
+        }
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(afterDays));
+            TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+            int moved = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                Integer count = batchTransaction.execute(status -> moveBatch(cutoff));
+                moved += count;
+                if (count < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+            System.out.println("Archived " + moved + " orders older than " + afterDays + " days");
+            return moved;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Order archival interrupted");
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int moveBatch(Timestamp cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH_SQL,
+                new MapSqlParameterSource("cutoff", cutoff).addValue("limit", batchSize), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update(COPY_ORDERS_SQL, params);
+        jdbcTemplate.update(COPY_ITEMS_SQL, params);
+        jdbcTemplate.update(DELETE_ITEMS_SQL, params);
+        jdbcTemplate.update(DELETE_ORDERS_SQL, params);
+        return ids.size();
+    }
+}
@@ -0,0 +1,132 @@
+package com.cdac.service;
+
+import com.cdac.dto.BulkUpdateResultDto;
+import com.cdac.entity.Order;
+import com.cdac.entity.OrderStatus;
+import com.cdac.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves many of a vendor's orders to one status, e.g. marking a day's
+ * dispatch as SHIPPED.
+ *
+ * Each batch runs in its own transaction: the batch's orders are read with a
+ * row lock, the legal transitions are picked out, and all of them are applied
+ * by one conditional UPDATE that also bumps the version, so a single-order
+ * update that read the old version fails instead of overwriting the change.
+ * Orders already in the target status count as updated without being written,
+ * as with a single-order update, so a retried request succeeds. Orders that
+ * are missing, belong to another vendor or cannot make the transition are
+ * reported back instead of failing the request. If a batch fails after earlier
+ * ones committed, the report covers those and lists the rest as not updated.
+ */
+@Service
+public class OrderBulkStatusService {
+
+    public static final int MAX_ORDERS = 10_000;
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public BulkUpdateResultDto updateStatuses(Long vendorId, List<Long> orderIds, OrderStatus status) {
+        if (status == null) {
+            throw new RuntimeException("status is required");
+        }
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new RuntimeException("No orders supplied");
+        }
+        if (orderIds.size() > MAX_ORDERS) {
+            throw new RuntimeException("At most " + MAX_ORDERS + " orders are accepted per request");
+        }
+        if (orderIds.contains(null)) {
+            throw new RuntimeException("Order ids must not be null");
+        }
+
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        Set<OrderStatus> sources = OrderStatus.sourcesOf(status);
+        List<Long> updated = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        Map<Long, String> invalid = new LinkedHashMap<>();
+
+        TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            // Kept apart until the batch commits, so a rolled back batch reports nothing
+            List<Long> batchNotFound = new ArrayList<>();
+            Map<Long, String> batchInvalid = new LinkedHashMap<>();
+            List<Long> batchUpdated;
+            try {
+                batchUpdated = batchTransaction.execute(tx -> {
+                    Map<Long, Order> ordersById = new HashMap<>();
+                    for (Order order : orderRepository.findForStatusChange(vendorId, batch)) {
+                        ordersById.put(order.getId(), order);
+                    }
+                    List<Order> movable = new ArrayList<>();
+                    List<Long> movableIds = new ArrayList<>();
+                    List<Long> done = new ArrayList<>();
+                    for (Long id : batch) {
+                        Order order = ordersById.get(id);
+                        if (order == null) {
+                            batchNotFound.add(id);
+                        } else if (order.getStatus() == status) {
+                            done.add(id);
+                        } else if (!order.getStatus().canTransitionTo(status)) {
+                            batchInvalid.put(id, "Cannot change order status from " + order.getStatus() + " to " + status);
+                        } else {
+                            movable.add(order);
+                            movableIds.add(id);
+                            done.add(id);
+                        }
+                    }
+                    if (movable.isEmpty()) {
+                        return done;
+                    }
+                    // The rows are locked, so every movable order must match; anything else is a bug
+                    if (orderRepository.transitionStatus(movableIds, sources, status) != movable.size()) {
+                        throw new IllegalStateException("Locked orders changed during bulk status update");
+                    }
+                    // The update cleared the persistence context, so these copies are detached
+                    for (Order order : movable) {
+                        OrderStatus previousStatus = order.getStatus();
+                        order.setStatus(status);
+                        outboxService.statusChanged(order, previousStatus);
+                    }
+                    return done;
+                });
+            } catch (RuntimeException e) {
+                if (from == 0) {
+                    throw e;
+                }
+                // Earlier batches are committed, so report them rather than failing the whole request
+                System.err.println("Bulk status update stopped at order " + batch.get(0) + ": " + e.getMessage());
+                for (Long id : ids.subList(from, ids.size())) {
+                    invalid.put(id, "Not updated: " + e.getMessage());
+                }
+                break;
+            }
+            notFound.addAll(batchNotFound);
+            invalid.putAll(batchInvalid);
+            updated.addAll(batchUpdated);
+        }
+        return new BulkUpdateResultDto(updated, notFound, invalid);
+    }
+}
@@ -0,0 +1,28 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pushes order events to STOMP topics so dashboards and chats can update
+ * without polling: /topic/orders/vendor/{vendorId},
+ * /topic/orders/shopkeeper/{shopkeeperId} and, for chat-based orders,
+ * /topic/chat/{chatRoomId}/orders.
+ */
+@Service
+public class OrderEventBroadcaster implements OrderEventSubscriber {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        messagingTemplate.convertAndSend("/topic/orders/vendor/" + event.getVendorId(), event);
+        messagingTemplate.convertAndSend("/topic/orders/shopkeeper/" + event.getShopkeeperId(), event);
+        if (event.getChatRoomId() != null) {
+            messagingTemplate.convertAndSend("/topic/chat/" + event.getChatRoomId() + "/orders", event);
+        }
+    }
+}
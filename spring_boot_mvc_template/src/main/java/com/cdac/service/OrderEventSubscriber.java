@@ -0,0 +1,14 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderEvent;
+
+/**
+ * Receives order events from the outbox relay.
+ *
+ * Delivery is at-least-once: an event is redelivered to every subscriber if
+ * any of them throws, so handlers must tolerate seeing an event twice. Events
+ * of the same order always arrive in the order they were written.
+ */
+public interface OrderEventSubscriber {
+    void onOrderEvent(OrderEvent event);
+}
@@ -0,0 +1,252 @@
+package com.cdac.service;
+
+import com.cdac.entity.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams orders and their lines to a CSV or NDJSON writer.
+ *
+ * Rows are read with plain JDBC through a forward-only, read-only cursor and
+ * written as they arrive, so no entities are loaded and memory use does not
+ * depend on how many orders match. The archive is exported first, then the
+ * live table; each part is ordered by order id so an order's lines are
+ * adjacent. Both reads share one repeatable-read snapshot, so an order the
+ * nightly archive job moves mid-export appears exactly once. CSV has one row
+ * per line, NDJSON one object per order.
+ */
+@Service
+public class OrderExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String CSV_HEADER = "orderId,orderDate,status,orderType,totalAmount,vendorId,vendorShopName,"
+            + "shopkeeperId,shopkeeperShopName,productId,productName,quantity,price";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Writes every order matching the filters; null filters are not applied and both dates are inclusive.
+     */
+    public void exportOrders(LocalDate from, LocalDate to, Long vendorId, OrderStatus status,
+                             String format, Writer out) throws IOException {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new RuntimeException("Unsupported export format: " + format);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        boolean csv = FORMAT_CSV.equals(format);
+        if (csv) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        try {
+            snapshot.executeWithoutResult(tx -> {
+                for (String[] tables : new String[][]{{"orders_archive", "order_item_archive"}, {"orders", "order_item"}}) {
+                    RowWriter rows = csv ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+                    jdbcTemplate.query(select(tables[0], tables[1], from, to, vendorId, status), rows);
+                    try {
+                        rows.finish();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Unwrap write failures (usually a client that disconnected) thrown from inside the row callback
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private PreparedStatementCreator select(String ordersTable, String itemsTable, LocalDate from, LocalDate to,
+                                             Long vendorId, OrderStatus status) {
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT o.id, o.order_date, o.status, o.order_type, o.total_amount, ")
+                .append("o.vendor_id, v.shop_name, o.shopkeeper_id, s.shop_name, ")
+                .append("i.product_id, p.name, i.quantity, i.price ")
+                .append("FROM ").append(ordersTable).append(" o ")
+                .append("JOIN vendor v ON v.id = o.vendor_id ")
+                .append("JOIN shopkeeper s ON s.id = o.shopkeeper_id ")
+                .append("LEFT JOIN ").append(itemsTable).append(" i ON i.order_id = o.id ")
+                .append("LEFT JOIN product p ON p.id = i.product_id ")
+                .append("WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND o.order_date >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND o.order_date < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        if (vendorId != null) {
+            sql.append(" AND o.vendor_id = ?");
+            args.add(vendorId);
+        }
+        if (status != null) {
+            sql.append(" AND o.status = ?");
+            args.add(status.name());
+        }
+        sql.append(" ORDER BY o.id, i.id");
+
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J buffers the whole result unless the fetch size is MIN_VALUE, which streams row by row
+            boolean mysql = "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+            ps.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        };
+    }
+
+    private abstract static class RowWriter implements RowCallbackHandler {
+        final Writer out;
+
+        RowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException {
+        }
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+
+        CsvRowWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            StringBuilder line = new StringBuilder(160);
+            for (int column = 1; column <= 13; column++) {
+                if (column > 1) {
+                    line.append(',');
+                }
+                Object value = column == 2 ? rs.getTimestamp(column) : rs.getObject(column);
+                if (value instanceof Timestamp timestamp) {
+                    value = timestamp.toLocalDateTime();
+                }
+                appendCsv(line, value);
+            }
+            line.append('\n');
+            out.write(line.toString());
+        }
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+        private Map<String, Object> order;
+        private List<Map<String, Object>> lines;
+
+        NdjsonRowWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            long orderId = rs.getLong(1);
+            if (order == null || !order.get("id").equals(orderId)) {
+                finish();
+                Timestamp orderDate = rs.getTimestamp(2);
+                order = new LinkedHashMap<>();
+                order.put("id", orderId);
+                order.put("orderDate", orderDate != null ? orderDate.toLocalDateTime().toString() : null);
+                order.put("status", rs.getString(3));
+                order.put("orderType", rs.getString(4));
+                order.put("totalAmount", rs.getBigDecimal(5));
+                order.put("vendorId", rs.getLong(6));
+                order.put("vendorShopName", rs.getString(7));
+                order.put("shopkeeperId", rs.getLong(8));
+                order.put("shopkeeperShopName", rs.getString(9));
+                lines = new ArrayList<>();
+                order.put("items", lines);
+            }
+            long productId = rs.getLong(10);
+            if (!rs.wasNull()) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("productId", productId);
+                line.put("productName", rs.getString(11));
+                line.put("quantity", rs.getInt(12));
+                line.put("price", rs.getBigDecimal(13));
+                lines.add(line);
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (order != null) {
+                out.write(objectMapper.writeValueAsString(order));
+                out.write('\n');
+                order = null;
+            }
+        }
+    }
+
+    private static void appendCsv(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        // Names a spreadsheet would run as a formula are kept literal with a leading quote
+        if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,60 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderEvent;
+import com.cdac.entity.OrderType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Feeds new direct orders into the featured-products ranking and refreshes the
+ * search indexes of the products whose stock they took.
+ */
+@Service
+public class OrderSalesIndexer implements OrderEventSubscriber {
+
+    private static final int REMEMBERED_EVENTS = 10_000;
+
+    @Autowired
+    private ProductRankingService productRankingService;
+
+    @Autowired
+    private ProductService productService;
+
+    // Ranking scores are additive, so a redelivered event must not be counted twice
+    private final Map<Long, Boolean> recentEventIds = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > REMEMBERED_EVENTS;
+        }
+    };
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        // Chat-based orders do not take stock and are not counted as sales
+        if (!OrderEvent.CREATED.equals(event.getType()) || event.getOrderType() != OrderType.DIRECT) {
+            return;
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (OrderEvent.Line line : event.getLines()) {
+            productIds.add(line.getProductId());
+        }
+        productService.refreshIndexes(productIds);
+        synchronized (recentEventIds) {
+            if (recentEventIds.containsKey(event.getEventId())) {
+                return;
+            }
+        }
+        for (OrderEvent.Line line : event.getLines()) {
+            productRankingService.recordSale(line.getProductId(), line.getCategoryId(), event.getOrderDate(), line.getQuantity());
+        }
+        // Only remembered once counted, so an event that failed part way is redelivered
+        synchronized (recentEventIds) {
+            recentEventIds.put(event.getEventId(), Boolean.TRUE);
+        }
+    }
+}
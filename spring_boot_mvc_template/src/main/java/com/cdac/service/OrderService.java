@@ -1,20 +1,40 @@
 package com.cdac.service;
 
 import com.cdac.dto.OrderItemDto;
+import com.cdac.dto.OrderPageDto;
 import com.cdac.dto.OrderRequestDto;
+import com.cdac.dto.OrderSummaryDto;
 import com.cdac.entity.*;
+import com.cdac.repository.ArchivedOrderRepository;
 import com.cdac.repository.OrderRepository;
 import com.cdac.repository.ProductRepository;
 import com.cdac.repository.ShopkeeperRepository;
 import com.cdac.repository.VendorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class OrderService {
@@ -22,6 +42,9 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -34,8 +57,35 @@ public class OrderService {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String HISTORY_SORT = "newest";
+
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders "
+            + "(shopkeeper_id, vendor_id, total_amount, status, order_type, chat_room_id, transaction_id, order_date, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_ORDER_ITEM_SQL = "INSERT INTO order_item "
+            + "(order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+    // Check-and-decrement in one statement; matches no row when the stock left would not
+    // cover the units reserved by other carts
+    private static final String DECREMENT_STOCK_SQL = "UPDATE product SET stock_quantity = stock_quantity - ? "
+            + "WHERE id = ? AND stock_quantity - ? >= ?";
+
+    /**
+     * Checks out the whole cart, creating one order per vendor in the cart.
+     * Stock for every line is taken first (in product-id order), then all orders
+     * and their items are written with two JDBC batches in the same transaction.
+     */
     @Transactional
-    public Order createDirectOrder(Long shopkeeperId) {
+    public List<Order> createDirectOrder(Long shopkeeperId) {
         List<com.cdac.entity.Cart> cartItems = cartService.getCartItems(shopkeeperId);
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Cart is empty");
@@ -43,47 +93,143 @@ public class OrderService {
 
         Shopkeeper shopkeeper = shopkeeperRepository.findById(shopkeeperId)
                 .orElseThrow(() -> new RuntimeException("Shopkeeper not found"));
-        
-        // Get vendor from first cart item (assuming single vendor per cart)
-        Vendor vendor = cartItems.get(0).getProduct().getVendor();
-
-        Order order = new Order();
-        order.setShopkeeper(shopkeeper);
-        order.setVendor(vendor);
-        order.setStatus(OrderStatus.PENDING);
-        order.setOrderType(OrderType.DIRECT);
-        order.setOrderDate(LocalDateTime.now());
-
-        List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
 
+        Map<Long, Integer> quantities = new HashMap<>();
+        Map<Long, Product> productsById = new HashMap<>();
+        // vendorId -> that vendor's cart lines; sorted so orders are created in a stable order
+        Map<Long, List<com.cdac.entity.Cart>> linesByVendor = new TreeMap<>();
         for (com.cdac.entity.Cart cartItem : cartItems) {
             Product product = cartItem.getProduct();
-            
-            if (product.getStockQuantity() < cartItem.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+            if (cartItem.getQuantity() == null || cartItem.getQuantity() <= 0) {
+                throw new RuntimeException("Invalid quantity for product: " + product.getName());
             }
-            
-            product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
+            quantities.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
+            productsById.put(product.getId(), product);
+            linesByVendor.computeIfAbsent(product.getVendor().getId(), v -> new ArrayList<>()).add(cartItem);
+        }
+        takeStock(shopkeeperId, quantities, productsById);
 
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(product.getPrice());
+        LocalDateTime orderDate = LocalDateTime.now();
+        List<Order> orders = new ArrayList<>(linesByVendor.size());
+        for (List<com.cdac.entity.Cart> lines : linesByVendor.values()) {
+            Order order = new Order();
+            order.setShopkeeper(shopkeeper);
+            order.setVendor(lines.get(0).getProduct().getVendor());
+            order.setStatus(OrderStatus.PENDING);
+            order.setOrderType(OrderType.DIRECT);
+            order.setOrderDate(orderDate);
 
-            orderItems.add(orderItem);
-            totalAmount = totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+            List<OrderItem> orderItems = new ArrayList<>(lines.size());
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            for (com.cdac.entity.Cart cartItem : lines) {
+                Product product = cartItem.getProduct();
+
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(cartItem.getQuantity());
+                orderItem.setPrice(product.getPrice());
+
+                orderItems.add(orderItem);
+                totalAmount = totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+            }
+            order.setOrderItems(orderItems);
+            order.setTotalAmount(totalAmount);
+            orders.add(order);
         }
 
-        order.setOrderItems(orderItems);
-        order.setTotalAmount(totalAmount);
-        
-        Order savedOrder = orderRepository.save(order);
+        insertOrders(orders);
         cartService.clearCart(shopkeeperId);
-        
-        return savedOrder;
+
+        return orders;
+    }
+
+    /**
+     * Resolves every product referenced by the order lines with a single query.
+     * Throws if any of them does not exist.
+     */
+    public Map<Long, Product> loadProducts(List<OrderItemDto> items) {
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItemDto item : items) {
+            if (item.getProductId() == null) {
+                throw new RuntimeException("Product not found");
+            }
+            productIds.add(item.getProductId());
+        }
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            productsById.put(product.getId(), product);
+        }
+        for (Long productId : productIds) {
+            if (!productsById.containsKey(productId)) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+        }
+        return productsById;
+    }
+
+    /**
+     * Inserts new orders and their items with one JDBC batch each, fills in the
+     * generated ids and records an ORDER_CREATED event per order in the outbox.
+     * Hibernate cannot batch IDENTITY inserts, so persisting through the repository
+     * would cost a round trip per row. Must run inside a transaction.
+     */
+    public void insertOrders(List<Order> orders) {
+        KeyHolder orderKeys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Order order = orders.get(i);
+                        ps.setLong(1, order.getShopkeeper().getId());
+                        ps.setLong(2, order.getVendor().getId());
+                        ps.setBigDecimal(3, order.getTotalAmount());
+                        ps.setString(4, order.getStatus().name());
+                        ps.setString(5, order.getOrderType().name());
+                        ps.setObject(6, order.getChatRoomId(), Types.BIGINT);
+                        ps.setString(7, order.getTransactionId());
+                        ps.setTimestamp(8, Timestamp.valueOf(order.getOrderDate()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orders.size();
+                    }
+                },
+                orderKeys);
+        List<Map<String, Object>> keys = orderKeys.getKeyList();
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            orders.get(i).setVersion(0L);
+            items.addAll(orders.get(i).getOrderItems());
+        }
+
+        KeyHolder itemKeys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ORDER_ITEM_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OrderItem item = items.get(i);
+                        ps.setLong(1, item.getOrder().getId());
+                        ps.setLong(2, item.getProduct().getId());
+                        ps.setInt(3, item.getQuantity());
+                        ps.setBigDecimal(4, item.getPrice());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                itemKeys);
+        keys = itemKeys.getKeyList();
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        outboxService.orderCreated(orders);
     }
 
     public String createEstimationRequest(Long shopkeeperId) {
@@ -98,6 +244,7 @@ public class OrderService {
         // Create or get chat room and redirect to chat
         return "Chat initiated with vendor: " + vendor.getShopName();
     }
+    @Transactional
     public Order placeOrder(OrderRequestDto dto) {
         Shopkeeper shopkeeper = shopkeeperRepository.findById(dto.getShopkeeperId())
                 .orElseThrow(() -> new RuntimeException("Shopkeeper not found"));
@@ -114,18 +261,23 @@ public class OrderService {
         List<OrderItem> orderItems = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
 
+        Map<Long, Product> productsById = loadProducts(dto.getItems());
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItemDto itemDto : dto.getItems()) {
-            Product product = productRepository.findById(itemDto.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-            
-            // Check stock? Assuming yes but simplistic
-            if (product.getStockQuantity() < itemDto.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+            Product product = productsById.get(itemDto.getProductId());
+            if (!product.getVendor().getId().equals(vendor.getId())) {
+                throw new RuntimeException("Product " + product.getName() + " is not sold by this vendor");
+            }
+            // Checked per line: merged totals would let a negative line cancel out a larger one
+            if (itemDto.getQuantity() <= 0) {
+                throw new RuntimeException("Invalid quantity for product: " + product.getName());
             }
-            
-            // Deduct stock
-            product.setStockQuantity(product.getStockQuantity() - itemDto.getQuantity());
-            productRepository.save(product);
+            quantities.merge(product.getId(), itemDto.getQuantity(), Integer::sum);
+        }
+        takeStock(dto.getShopkeeperId(), quantities, productsById);
+
+        for (OrderItemDto itemDto : dto.getItems()) {
+            Product product = productsById.get(itemDto.getProductId());
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -140,37 +292,205 @@ public class OrderService {
         order.setOrderItems(orderItems);
         order.setTotalAmount(totalAmount);
 
-        return orderRepository.save(order);
+        insertOrders(List.of(order));
+        return order;
+    }
+
+    /**
+     * Takes the stock for every product with a conditional UPDATE, so concurrent orders can
+     * never oversell and never wait on a row lock held across a read. Stock held for other
+     * shopkeepers' carts is left untouched; the buyer's own hold is simply consumed. Must run
+     * inside the order's transaction: a shortfall on any product throws and rolls back the
+     * other decrements. Products are decremented in id order so overlapping orders cannot deadlock.
+     * The updates go out as one JDBC batch; through JPQL each one would auto-flush the
+     * persistence context holding every loaded product first.
+     */
+    private void takeStock(Long shopkeeperId, Map<Long, Integer> quantities, Map<Long, Product> productsById) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        productIds.sort(Comparator.naturalOrder());
+        int[] reserved = new int[productIds.size()];
+        for (int i = 0; i < productIds.size(); i++) {
+            Long productId = productIds.get(i);
+            if (quantities.get(productId) <= 0) {
+                throw new RuntimeException("Invalid quantity for product: " + productsById.get(productId).getName());
+            }
+            reserved[i] = inventoryReservationService.reservedByOthers(productId, shopkeeperId);
+        }
+        // The loaded entities are deliberately left untouched: writing their (stale) stock back
+        // on flush would undo concurrent decrements
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int quantity = quantities.get(productIds.get(i));
+                ps.setInt(1, quantity);
+                ps.setLong(2, productIds.get(i));
+                ps.setInt(3, quantity);
+                ps.setInt(4, reserved[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.size();
+            }
+        });
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new RuntimeException("Insufficient stock for product: " + productsById.get(productIds.get(i)).getName());
+            }
+        }
+        inventoryReservationService.consumeAfterCommit(shopkeeperId, quantities);
     }
 
     public List<Order> getOrdersByShopkeeper(Long shopkeeperId) {
-        return orderRepository.findByShopkeeperId(shopkeeperId);
+        List<Order> orders = new ArrayList<>(orderRepository.findByShopkeeperId(shopkeeperId));
+        archivedOrderRepository.findByShopkeeperId(shopkeeperId).forEach(a -> orders.add(toOrder(a)));
+        return orders;
     }
 
     public List<Order> getOrdersByVendor(Long vendorId) {
-        return orderRepository.findByVendorId(vendorId);
+        List<Order> orders = new ArrayList<>(orderRepository.findByVendorId(vendorId));
+        archivedOrderRepository.findByVendorId(vendorId).forEach(a -> orders.add(toOrder(a)));
+        return orders;
+    }
+    
+    /**
+     * One page of a vendor's order history, newest first. The cursor is the opaque
+     * nextCursor of the previous page. Pages span live and archived orders: both
+     * tables are read up to the same id and the results merged.
+     */
+    public OrderPageDto getOrderSummariesByVendor(Long vendorId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long beforeId = decodeBeforeId(cursor);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        return toOrderPage(mergeNewestFirst(orderRepository.findSummariesByVendorId(vendorId, beforeId, fetchLimit),
+                archivedOrderRepository.findSummariesByVendorId(vendorId, beforeId, fetchLimit)), pageSize);
+    }
+
+    public OrderPageDto getOrderSummariesByShopkeeper(Long shopkeeperId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long beforeId = decodeBeforeId(cursor);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        return toOrderPage(mergeNewestFirst(orderRepository.findSummariesByShopkeeperId(shopkeeperId, beforeId, fetchLimit),
+                archivedOrderRepository.findSummariesByShopkeeperId(shopkeeperId, beforeId, fetchLimit)), pageSize);
+    }
+
+    private static List<OrderSummaryDto> mergeNewestFirst(List<OrderSummaryDto> live, List<OrderSummaryDto> archived) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<OrderSummaryDto> merged = new ArrayList<>(live.size() + archived.size());
+        merged.addAll(live);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(OrderSummaryDto::getId).reversed());
+        return merged;
+    }
+
+    private static long decodeBeforeId(String cursor) {
+        if (cursor == null) {
+            return Long.MAX_VALUE;
+        }
+        String[] parts = CursorCodec.decode(cursor, 2);
+        if (!HISTORY_SORT.equals(parts[0])) {
+            throw new RuntimeException("Cursor does not match sort: " + HISTORY_SORT);
+        }
+        return Long.parseLong(parts[1]);
+    }
+
+    private static OrderPageDto toOrderPage(List<OrderSummaryDto> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummaryDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? CursorCodec.encode(HISTORY_SORT, items.get(items.size() - 1).getId().toString()) : null;
+        return new OrderPageDto(items, nextCursor, hasMore);
     }
     
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+        return updateOrderStatus(orderId, status, null);
+    }
+
+    /**
+     * Moves the order to status if that is a legal transition. Setting the status it
+     * already has is a no-op. When expectedVersion is given it must match the stored
+     * version; either way a concurrent change surfaces as an optimistic locking failure.
+     */
+    @Transactional
+    public Order updateOrderStatus(Long orderId, OrderStatus status, Long expectedVersion) {
+        Order order = orderRepository.findWithItemsById(orderId)
+                .orElseThrow(() -> orderNotFound(orderId, "Order not found"));
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Order.class, orderId);
+        }
+        OrderStatus previousStatus = order.getStatus();
+        if (previousStatus == status) {
+            return order;
+        }
+        if (!previousStatus.canTransitionTo(status)) {
+            throw new RuntimeException("Cannot change order status from " + previousStatus + " to " + status);
+        }
         order.setStatus(status);
-        return orderRepository.save(order);
+        outboxService.statusChanged(order, previousStatus);
+        return order;
+    }
+
+    // Marks the order paid and confirmed
+    @Transactional
+    public Order recordPayment(Long orderId, String transactionId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> orderNotFound(orderId, "Order not found with ID: " + orderId));
+        OrderStatus previousStatus = order.getStatus();
+        if (previousStatus != OrderStatus.CONFIRMED && !previousStatus.canTransitionTo(OrderStatus.CONFIRMED)) {
+            throw new RuntimeException("Cannot confirm payment for a " + previousStatus + " order");
+        }
+        order.setTransactionId(transactionId);
+        order.setStatus(OrderStatus.CONFIRMED);
+        if (previousStatus != OrderStatus.CONFIRMED) {
+            outboxService.statusChanged(order, previousStatus);
+        }
+        return order;
     }
     
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        List<Order> orders = new ArrayList<>(orderRepository.findAll());
+        archivedOrderRepository.findAll().forEach(a -> orders.add(toOrder(a)));
+        return orders;
     }
     
+    // Falls through to the archive for orders that have been moved out of the live table
     public Order getOrderById(Long orderId) {
-        return orderRepository.findById(orderId)
+        return orderRepository.findWithItemsById(orderId)
+                .or(() -> archivedOrderRepository.findWithItemsById(orderId).map(OrderService::toOrder))
                 .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
+    private RuntimeException orderNotFound(Long orderId, String message) {
+        return archivedOrderRepository.existsById(orderId)
+                ? new RuntimeException("Archived orders cannot be changed")
+                : new RuntimeException(message);
+    }
+
+    // Read-only copy of an archived order in the live shape, so callers and clients see one type
+    private static Order toOrder(ArchivedOrder archived) {
+        Order order = new Order();
+        order.setId(archived.getId());
+        order.setShopkeeper(archived.getShopkeeper());
+        order.setVendor(archived.getVendor());
+        order.setTotalAmount(archived.getTotalAmount());
+        order.setStatus(archived.getStatus());
+        order.setOrderType(archived.getOrderType());
+        order.setChatRoomId(archived.getChatRoomId());
+        order.setTransactionId(archived.getTransactionId());
+        order.setOrderDate(archived.getOrderDate());
+        order.setVersion(archived.getVersion());
+        List<OrderItem> items = new ArrayList<>(archived.getOrderItems().size());
+        for (ArchivedOrderItem item : archived.getOrderItems()) {
+            items.add(new OrderItem(item.getId(), order, item.getProduct(), item.getQuantity(), item.getPrice()));
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+
     public BigDecimal getTotalExpense(Long shopkeeperId) {
-        List<Order> orders = orderRepository.findByShopkeeperId(shopkeeperId);
-        return orders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal total = orderRepository.sumTotalAmountByShopkeeperId(shopkeeperId);
+        BigDecimal archived = archivedOrderRepository.sumTotalAmountByShopkeeperId(shopkeeperId);
+        return (total != null ? total : BigDecimal.ZERO).add(archived != null ? archived : BigDecimal.ZERO);
     }
 }
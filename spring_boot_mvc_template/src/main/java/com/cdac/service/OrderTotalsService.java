@@ -0,0 +1,174 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderEvent;
+import com.cdac.dto.OrderTotalsDto;
+import com.cdac.dto.StatusAggregateDto;
+import com.cdac.entity.OrderStatus;
+import com.cdac.repository.ArchivedOrderRepository;
+import com.cdac.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Per-vendor and per-shopkeeper order counts and values by status, kept in memory.
+ *
+ * An entry is loaded with one grouped query per order table and then moved
+ * forward by order events, so a dashboard read is normally served without
+ * touching the database. An event only adjusts an entry loaded before the
+ * event was written; for older entries the load may already have counted it,
+ * so the entry is dropped and reloaded instead. Entries also expire after
+ * dashboard.totals-ttl-seconds, which bounds any drift from changes that do
+ * not produce events, such as deleted users.
+ */
+@Service
+public class OrderTotalsService implements OrderEventSubscriber {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final int REMEMBERED_EVENTS = 10_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Value("${dashboard.totals-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private static class Totals {
+        final Map<OrderStatus, long[]> counts = new EnumMap<>(OrderStatus.class);
+        final Map<OrderStatus, BigDecimal> amounts = new EnumMap<>(OrderStatus.class);
+        LocalDateTime loadedAt;
+
+        void add(OrderStatus status, long count, BigDecimal amount) {
+            counts.computeIfAbsent(status, s -> new long[1])[0] += count;
+            amounts.merge(status, amount != null ? amount : BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+
+    private static class Table {
+        final Map<Long, Totals> entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Totals> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+        // Ids being loaded -> whether an event for them arrived meanwhile
+        final Map<Long, Boolean> loading = new HashMap<>();
+    }
+
+    private final Table vendors = new Table();
+    private final Table shopkeepers = new Table();
+
+    private final Map<Long, Boolean> recentEventIds = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > REMEMBERED_EVENTS;
+        }
+    };
+
+    public OrderTotalsDto forVendor(Long vendorId) {
+        return totals(vendors, vendorId, id -> load(orderRepository.aggregateByVendorId(id),
+                archivedOrderRepository.aggregateByVendorId(id)));
+    }
+
+    public OrderTotalsDto forShopkeeper(Long shopkeeperId) {
+        return totals(shopkeepers, shopkeeperId, id -> load(orderRepository.aggregateByShopkeeperId(id),
+                archivedOrderRepository.aggregateByShopkeeperId(id)));
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        synchronized (this) {
+            if (event.getEventId() != null && recentEventIds.containsKey(event.getEventId())) {
+                return;
+            }
+            apply(vendors, event.getVendorId(), event);
+            apply(shopkeepers, event.getShopkeeperId(), event);
+            if (event.getEventId() != null) {
+                recentEventIds.put(event.getEventId(), Boolean.TRUE);
+            }
+        }
+    }
+
+    private OrderTotalsDto totals(Table table, Long id, Function<Long, Totals> loader) {
+        synchronized (this) {
+            Totals cached = table.entries.get(id);
+            if (cached != null && cached.loadedAt.plusSeconds(ttlSeconds).isAfter(LocalDateTime.now())) {
+                return toDto(cached);
+            }
+            table.loading.putIfAbsent(id, Boolean.FALSE);
+        }
+        // The queries run outside the monitor so other dashboards and the relay are not blocked
+        Totals loaded = loader.apply(id);
+        synchronized (this) {
+            Boolean touched = table.loading.remove(id);
+            if (Boolean.FALSE.equals(touched)) {
+                table.entries.put(id, loaded);
+            } else {
+                // An event landed while loading and may or may not be in the result; serve it but do not keep it
+                table.entries.remove(id);
+            }
+            return toDto(loaded);
+        }
+    }
+
+    private static Totals load(List<StatusAggregateDto> live, List<StatusAggregateDto> archived) {
+        Totals totals = new Totals();
+        for (StatusAggregateDto row : live) {
+            totals.add(row.getStatus(), row.getOrderCount(), row.getTotalAmount());
+        }
+        for (StatusAggregateDto row : archived) {
+            totals.add(row.getStatus(), row.getOrderCount(), row.getTotalAmount());
+        }
+        // Stamped after the queries returned: anything written later cannot be in the result
+        totals.loadedAt = LocalDateTime.now();
+        return totals;
+    }
+
+    // Caller must hold the monitor
+    private static void apply(Table table, Long id, OrderEvent event) {
+        if (id == null) {
+            return;
+        }
+        if (table.loading.containsKey(id)) {
+            table.loading.put(id, Boolean.TRUE);
+        }
+        Totals totals = table.entries.get(id);
+        if (totals == null) {
+            return;
+        }
+        if (event.getOccurredAt() == null || !event.getOccurredAt().isAfter(totals.loadedAt)) {
+            table.entries.remove(id);
+            return;
+        }
+        BigDecimal amount = event.getTotalAmount() != null ? event.getTotalAmount() : BigDecimal.ZERO;
+        if (OrderEvent.STATUS_CHANGED.equals(event.getType()) && event.getPreviousStatus() != null) {
+            totals.add(event.getPreviousStatus(), -1, amount.negate());
+        }
+        totals.add(event.getStatus(), 1, amount);
+    }
+
+    private static OrderTotalsDto toDto(Totals totals) {
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        long totalOrders = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderStatus status : OrderStatus.values()) {
+            long[] count = totals.counts.get(status);
+            statusCounts.put(status.name(), count != null ? count[0] : 0L);
+            totalOrders += count != null ? count[0] : 0L;
+            totalAmount = totalAmount.add(totals.amounts.getOrDefault(status, BigDecimal.ZERO));
+        }
+        return new OrderTotalsDto(totalOrders, totalAmount, statusCounts);
+    }
+}
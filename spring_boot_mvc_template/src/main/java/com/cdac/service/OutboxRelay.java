@@ -0,0 +1,104 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderEvent;
+import com.cdac.entity.OutboxEvent;
+import com.cdac.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drains the outbox in id order and hands each event to every OrderEventSubscriber.
+ *
+ * A drain is requested after each commit that wrote events and also runs on a
+ * timer, which picks up retries and anything left behind by a crash. Delivered
+ * rows are deleted, so delivery is at-least-once. When an event fails, later
+ * events of the same order are held back until it succeeds, which keeps each
+ * order's events in sequence. An event that still fails after MAX_ATTEMPTS is
+ * parked: it stays in the table with the rest of its order's events behind it
+ * until an operator clears the flag. Drains are serialised, so this assumes one
+ * relay per database.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final int BATCH_SIZE = 200;
+    private static final int MAX_ATTEMPTS = 10;
+
+    // Events still to be delivered; parked orders are left out so they do not stall snapshot rebuilds
+    public static final String PENDING_COUNT_SQL = "SELECT COUNT(*) FROM outbox_event WHERE aggregate_id NOT IN "
+            + "(SELECT aggregate_id FROM outbox_event WHERE parked = TRUE)";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private List<OrderEventSubscriber> subscribers;
+
+    @Autowired
+    @Qualifier("outboxRelayExecutor")
+    private ThreadPoolTaskExecutor outboxRelayExecutor;
+
+    public void requestDrain() {
+        outboxRelayExecutor.execute(this::drain);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-millis:5000}")
+    public void poll() {
+        drain();
+    }
+
+    public synchronized void drain() {
+        while (true) {
+            List<OutboxEvent> batch = outboxEventRepository.findDeliverable(Limit.of(BATCH_SIZE));
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Long> done = new ArrayList<>(batch.size());
+            List<OutboxEvent> retry = new ArrayList<>();
+            Set<Long> heldBack = new HashSet<>();
+            for (OutboxEvent row : batch) {
+                if (heldBack.contains(row.getAggregateId())) {
+                    continue;
+                }
+                try {
+                    OrderEvent event = objectMapper.readValue(row.getPayload(), OrderEvent.class);
+                    event.setEventId(row.getId());
+                    for (OrderEventSubscriber subscriber : subscribers) {
+                        subscriber.onOrderEvent(event);
+                    }
+                    done.add(row.getId());
+                } catch (Exception e) {
+                    row.setAttempts(row.getAttempts() + 1);
+                    if (row.getAttempts() >= MAX_ATTEMPTS) {
+                        row.setParked(true);
+                        System.err.println("Parked outbox event " + row.getId() + " after " + MAX_ATTEMPTS
+                                + " attempts, holding back order " + row.getAggregateId() + ": " + e.getMessage());
+                    } else {
+                        System.err.println("Outbox event " + row.getId() + " failed, will retry: " + e.getMessage());
+                    }
+                    heldBack.add(row.getAggregateId());
+                    retry.add(row);
+                }
+            }
+            outboxEventRepository.deleteAllByIdInBatch(done);
+            outboxEventRepository.saveAll(retry);
+            // Failed events wait for the next poll rather than being retried in a tight loop
+            if (!retry.isEmpty() || batch.size() < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderEvent;
+import com.cdac.entity.Order;
+import com.cdac.entity.OrderItem;
+import com.cdac.entity.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes order events to the outbox table as part of the caller's transaction,
+ * so an event exists exactly when the order change it describes was committed.
+ */
+@Service
+public class OutboxService {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_event "
+            + "(aggregate_id, event_type, payload, attempts, parked, created_at) VALUES (?, ?, ?, 0, FALSE, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    public void orderCreated(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderEvent> events = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderEvent event = toEvent(order, OrderEvent.CREATED, null, now);
+            List<OrderEvent.Line> lines = new ArrayList<>(order.getOrderItems().size());
+            for (OrderItem item : order.getOrderItems()) {
+                lines.add(new OrderEvent.Line(item.getProduct().getId(),
+                        item.getProduct().getSubCategory().getCategory().getId(), item.getQuantity()));
+            }
+            event.setLines(lines);
+            events.add(event);
+        }
+        append(events);
+    }
+
+    public void statusChanged(Order order, OrderStatus previousStatus) {
+        append(List.of(toEvent(order, OrderEvent.STATUS_CHANGED, previousStatus, LocalDateTime.now())));
+    }
+
+    private static OrderEvent toEvent(Order order, String type, OrderStatus previousStatus, LocalDateTime now) {
+        OrderEvent event = new OrderEvent();
+        event.setType(type);
+        event.setOrderId(order.getId());
+        event.setVendorId(order.getVendor().getId());
+        event.setShopkeeperId(order.getShopkeeper().getId());
+        event.setChatRoomId(order.getChatRoomId());
+        event.setOrderType(order.getOrderType());
+        event.setStatus(order.getStatus());
+        event.setPreviousStatus(previousStatus);
+        event.setTotalAmount(order.getTotalAmount());
+        event.setOrderDate(order.getOrderDate());
+        event.setOccurredAt(now);
+        return event;
+    }
+
+    private void append(List<OrderEvent> events) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be written inside the order's transaction");
+        }
+        List<String> payloads = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            try {
+                payloads.add(objectMapper.writeValueAsString(event));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialise order event: " + e.getOriginalMessage());
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OrderEvent event = events.get(i);
+                ps.setLong(1, event.getOrderId());
+                ps.setString(2, event.getType());
+                ps.setString(3, payloads.get(i));
+                ps.setTimestamp(4, Timestamp.valueOf(event.getOccurredAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+        // Deliver right after commit instead of waiting for the next poll
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.requestDrain();
+            }
+        });
+    }
+}
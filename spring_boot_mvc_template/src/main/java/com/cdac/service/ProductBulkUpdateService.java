@@ -0,0 +1,125 @@
+package com.cdac.service;
+
+import com.cdac.dto.BulkUpdateResultDto;
+import com.cdac.dto.ProductStockPriceUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies price, discount and stock changes to many of a vendor's products at once.
+ *
+ * Each batch is a single JDBC batch of conditional UPDATEs in its own
+ * transaction; the vendor check is part of the WHERE clause, so no product
+ * rows are read first. The search and facet indexes are refreshed once per
+ * batch with the ids that actually changed.
+ */
+@Service
+public class ProductBulkUpdateService {
+
+    public static final int MAX_UPDATES = 10_000;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String UPDATE_SQL = "UPDATE product SET "
+            + "price = COALESCE(?, price), "
+            + "discount = COALESCE(?, discount), "
+            + "stock_quantity = COALESCE(?, stock_quantity) "
+            + "WHERE id = ? AND vendor_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    public BulkUpdateResultDto updateProducts(Long vendorId, List<ProductStockPriceUpdate> updates) {
+        if (updates == null || updates.isEmpty()) {
+            throw new RuntimeException("No updates supplied");
+        }
+        if (updates.size() > MAX_UPDATES) {
+            throw new RuntimeException("At most " + MAX_UPDATES + " updates are accepted per request");
+        }
+
+        List<Long> updated = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        Map<Long, String> invalid = new LinkedHashMap<>();
+
+        List<ProductStockPriceUpdate> valid = new ArrayList<>(updates.size());
+        for (ProductStockPriceUpdate update : updates) {
+            if (update.getId() == null) {
+                throw new RuntimeException("Every update needs a product id");
+            }
+            String problem = validate(update);
+            if (problem != null) {
+                invalid.put(update.getId(), problem);
+            } else {
+                valid.add(update);
+            }
+        }
+
+        TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < valid.size(); from += BATCH_SIZE) {
+            List<ProductStockPriceUpdate> batch = valid.subList(from, Math.min(from + BATCH_SIZE, valid.size()));
+            int[][] counts = batchTransaction.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(),
+                    (ps, update) -> {
+                        if (update.getPrice() != null) {
+                            ps.setBigDecimal(1, update.getPrice());
+                        } else {
+                            ps.setNull(1, Types.DECIMAL);
+                        }
+                        if (update.getDiscount() != null) {
+                            ps.setInt(2, update.getDiscount());
+                        } else {
+                            ps.setNull(2, Types.INTEGER);
+                        }
+                        if (update.getStockQuantity() != null) {
+                            ps.setInt(3, update.getStockQuantity());
+                        } else {
+                            ps.setNull(3, Types.INTEGER);
+                        }
+                        ps.setLong(4, update.getId());
+                        ps.setLong(5, vendorId);
+                    }));
+
+            List<Long> batchUpdated = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                // Batches of one size produce a single count array
+                if (counts[0][i] == 0) {
+                    notFound.add(batch.get(i).getId());
+                } else {
+                    batchUpdated.add(batch.get(i).getId());
+                }
+            }
+            productService.refreshIndexes(batchUpdated);
+            updated.addAll(batchUpdated);
+        }
+        return new BulkUpdateResultDto(updated, notFound, invalid);
+    }
+
+    private static String validate(ProductStockPriceUpdate update) {
+        if (update.getPrice() == null && update.getDiscount() == null && update.getStockQuantity() == null) {
+            return "Nothing to update";
+        }
+        if (update.getPrice() != null && update.getPrice().signum() < 0) {
+            return "price must be zero or positive";
+        }
+        if (update.getDiscount() != null && (update.getDiscount() < 0 || update.getDiscount() > 100)) {
+            return "discount must be between 0 and 100";
+        }
+        if (update.getStockQuantity() != null && update.getStockQuantity() < 0) {
+            return "stockQuantity must be zero or positive";
+        }
+        return null;
+    }
+}
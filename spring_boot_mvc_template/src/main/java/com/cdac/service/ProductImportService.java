@@ -0,0 +1,283 @@
+package com.cdac.service;
+
+import com.cdac.dto.ProductImportRow;
+import com.cdac.repository.SubCategoryRepository;
+import com.cdac.repository.VendorRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Streams a vendor's catalog file into the product table.
+ *
+ * Rows are parsed one line at a time, validated, and written with JDBC batch
+ * inserts in chunks of CHUNK_SIZE, one transaction per chunk. Product keeps its
+ * IDENTITY ids, so the inserts bypass Hibernate, which cannot batch IDENTITY
+ * inserts. Progress and per-row errors are written back as NDJSON while the
+ * import runs, so neither the input nor the report is held in memory.
+ */
+@Service
+public class ProductImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int CHUNK_SIZE = 500;
+    private static final String INSERT_SQL = "INSERT INTO product "
+            + "(name, description, price, discount, stock_quantity, image_url, sub_category_id, vendor_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static class PendingRow {
+        final int rowNumber;
+        final ProductImportRow row;
+
+        PendingRow(int rowNumber, ProductImportRow row) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+        }
+    }
+
+    public void importProducts(Long vendorId, String format, BufferedReader reader, Writer report) throws IOException {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new RuntimeException("Unsupported import format: " + format);
+        }
+        if (!vendorRepository.existsById(vendorId)) {
+            throw new RuntimeException("Vendor not found");
+        }
+        // One lookup for the whole import instead of a findById per row
+        Set<Long> subCategoryIds = new HashSet<>(subCategoryRepository.findAllIds());
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+
+        String[] header = null;
+        if (FORMAT_CSV.equals(format)) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                writeCounts(report, "summary", 0, 0, 0);
+                return;
+            }
+            header = parseCsvLine(headerLine).toArray(new String[0]);
+        }
+
+        List<PendingRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        int rowsRead = 0;
+        int inserted = 0;
+        int failed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowsRead++;
+            try {
+                ProductImportRow row = FORMAT_CSV.equals(format) ? toRow(header, parseCsvLine(line))
+                        : objectMapper.readValue(line, ProductImportRow.class);
+                validate(row, subCategoryIds);
+                chunk.add(new PendingRow(rowsRead, row));
+            } catch (JsonProcessingException e) {
+                failed++;
+                writeError(report, rowsRead, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (RuntimeException e) {
+                failed++;
+                writeError(report, rowsRead, e.getMessage());
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                int written = writeChunk(chunkTransaction, vendorId, chunk, report);
+                inserted += written;
+                failed += chunk.size() - written;
+                chunk.clear();
+                writeCounts(report, "progress", rowsRead, inserted, failed);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            int written = writeChunk(chunkTransaction, vendorId, chunk, report);
+            inserted += written;
+            failed += chunk.size() - written;
+        }
+        writeCounts(report, "summary", rowsRead, inserted, failed);
+    }
+
+    private int writeChunk(TransactionTemplate chunkTransaction, Long vendorId, List<PendingRow> chunk, Writer report)
+            throws IOException {
+        KeyHolder keys = new GeneratedKeyHolder();
+        try {
+            chunkTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ProductImportRow row = chunk.get(i).row;
+                            ps.setString(1, row.getName().trim());
+                            ps.setString(2, row.getDescription());
+                            ps.setBigDecimal(3, row.getPrice());
+                            ps.setInt(4, row.getDiscount() != null ? row.getDiscount() : 0);
+                            ps.setInt(5, row.getStockQuantity() != null ? row.getStockQuantity() : 0);
+                            if (row.getImageUrl() != null && !row.getImageUrl().isBlank()) {
+                                ps.setString(6, row.getImageUrl());
+                            } else {
+                                ps.setNull(6, Types.VARCHAR);
+                            }
+                            ps.setLong(7, row.getSubCategoryId());
+                            ps.setLong(8, vendorId);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keys));
+        } catch (RuntimeException e) {
+            // The chunk's transaction rolled back, so none of its rows were written
+            for (PendingRow pending : chunk) {
+                writeError(report, pending.rowNumber, "Batch insert failed: " + e.getMessage());
+            }
+            return 0;
+        }
+
+        List<Long> productIds = new ArrayList<>(chunk.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            Object id = key.values().iterator().next();
+            productIds.add(((Number) id).longValue());
+        }
+        productService.refreshIndexes(productIds);
+        return chunk.size();
+    }
+
+    private static void validate(ProductImportRow row, Set<Long> subCategoryIds) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new RuntimeException("name is required");
+        }
+        if (row.getPrice() == null || row.getPrice().signum() < 0) {
+            throw new RuntimeException("price must be zero or positive");
+        }
+        if (row.getDiscount() != null && (row.getDiscount() < 0 || row.getDiscount() > 100)) {
+            throw new RuntimeException("discount must be between 0 and 100");
+        }
+        if (row.getStockQuantity() != null && row.getStockQuantity() < 0) {
+            throw new RuntimeException("stockQuantity must be zero or positive");
+        }
+        if (row.getSubCategoryId() == null || !subCategoryIds.contains(row.getSubCategoryId())) {
+            throw new RuntimeException("SubCategory not found: " + row.getSubCategoryId());
+        }
+    }
+
+    private static ProductImportRow toRow(String[] header, List<String> values) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            fields.put(header[i].trim(), values.get(i));
+        }
+        ProductImportRow row = new ProductImportRow();
+        row.setName(fields.get("name"));
+        row.setDescription(blankToNull(fields.get("description")));
+        row.setPrice(parseOrNull(fields.get("price"), BigDecimal::new));
+        row.setDiscount(parseOrNull(fields.get("discount"), Integer::valueOf));
+        row.setStockQuantity(parseOrNull(fields.get("stockQuantity"), Integer::valueOf));
+        row.setSubCategoryId(parseOrNull(fields.get("subCategoryId"), Long::valueOf));
+        row.setImageUrl(blankToNull(fields.get("imageUrl")));
+        return row;
+    }
+
+    private static <T> T parseOrNull(String value, Function<String, T> parser) {
+        String trimmed = blankToNull(value);
+        return trimmed == null ? null : parser.apply(trimmed.trim());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    // Splits one CSV record; quoted fields may contain commas and doubled quotes but not line breaks
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private void writeError(Writer report, int rowNumber, String message) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", "error");
+        error.put("row", rowNumber);
+        error.put("message", message);
+        writeLine(report, error);
+    }
+
+    private void writeCounts(Writer report, String type, int rowsRead, int inserted, int failed) throws IOException {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("type", type);
+        counts.put("rowsRead", rowsRead);
+        counts.put("inserted", inserted);
+        counts.put("failed", failed);
+        writeLine(report, counts);
+    }
+
+    private void writeLine(Writer report, Map<String, Object> line) throws IOException {
+        report.write(objectMapper.writeValueAsString(line));
+        report.write('\n');
+        report.flush();
+    }
+}
@@ -0,0 +1,214 @@
+package com.cdac.service;
+
+import com.cdac.dto.ProductSaleDto;
+import com.cdac.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Ranks products by exponentially decayed units sold.
+ *
+ * Scores are stored relative to a reference instant: a sale at time t adds
+ * quantity * 2^((t - reference) / halfLife). Every score decays by the same
+ * factor, so the ordering never has to be recomputed as time passes and a
+ * new sale only repositions one product. The reference is moved forward
+ * occasionally to keep the numbers in range.
+ *
+ * At startup and then nightly the ranking is rebuilt from the last
+ * ranking.window-days of sales, which drops products that stopped selling.
+ * Like the revenue rollup reconciliation, it reads only a snapshot with no
+ * undelivered order events. The monitor recordSale and the readers use is held
+ * only while that snapshot is fixed and while the new ranking is swapped in;
+ * sales recorded in between are replayed onto it, so every sale is counted
+ * once: either in the snapshot or by its later event.
+ */
+@Service
+public class ProductRankingService {
+
+    private static final Duration REBASE_INTERVAL = Duration.ofDays(30);
+    private static final int REBUILD_ATTEMPTS = 30;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ranking.half-life-days:7}")
+    private double halfLifeDays;
+
+    @Value("${ranking.window-days:30}")
+    private int windowDays;
+
+    private static class Entry {
+        final Long productId;
+        final Long categoryId;
+        double score;
+
+        Entry(Long productId, Long categoryId) {
+            this.productId = productId;
+            this.categoryId = categoryId;
+        }
+    }
+
+    private static final Comparator<Entry> BY_SCORE_DESC = Comparator
+            .comparingDouble((Entry e) -> e.score).reversed()
+            .thenComparing(e -> e.productId);
+
+    private class Ranking {
+        final Map<Long, Entry> entries = new HashMap<>();
+        final TreeSet<Entry> global = new TreeSet<>(BY_SCORE_DESC);
+        final Map<Long, TreeSet<Entry>> byCategory = new HashMap<>();
+        LocalDateTime reference = LocalDateTime.now();
+
+        void recordSale(Long productId, Long categoryId, LocalDateTime soldAt, int quantity) {
+            if (Duration.between(reference, soldAt).compareTo(REBASE_INTERVAL) > 0) {
+                rebase(soldAt);
+            }
+            add(productId, categoryId, soldAt, quantity);
+        }
+
+        private void add(Long productId, Long categoryId, LocalDateTime soldAt, int quantity) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                entry = new Entry(productId, categoryId);
+                entries.put(productId, entry);
+            } else {
+                // Sorted sets must not see a key change while the element is inside them
+                global.remove(entry);
+                byCategory.get(entry.categoryId).remove(entry);
+            }
+            entry.score += quantity * weight(soldAt);
+            global.add(entry);
+            byCategory.computeIfAbsent(entry.categoryId, c -> new TreeSet<>(BY_SCORE_DESC)).add(entry);
+        }
+
+        private void rebase(LocalDateTime newReference) {
+            double factor = 1 / weight(newReference);
+            global.clear();
+            byCategory.clear();
+            for (Entry entry : entries.values()) {
+                entry.score *= factor;
+                global.add(entry);
+                byCategory.computeIfAbsent(entry.categoryId, c -> new TreeSet<>(BY_SCORE_DESC)).add(entry);
+            }
+            reference = newReference;
+        }
+
+        private double weight(LocalDateTime at) {
+            double elapsedDays = (toMillis(at) - toMillis(reference)) / 86_400_000d;
+            return Math.pow(2, elapsedDays / halfLifeDays);
+        }
+    }
+
+    private Ranking ranking = new Ranking();
+    // Sales recorded after a rebuild fixed its snapshot, replayed onto the new ranking
+    private List<ProductSaleDto> salesDuringRebuild;
+    private final Object rebuildLock = new Object(); // one rebuild at a time
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ranking.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildOnce();
+        }
+    }
+
+    private void rebuildOnce() {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        for (int attempt = 0; attempt < REBUILD_ATTEMPTS; attempt++) {
+            try {
+                List<ProductSaleDto> sales = snapshot.execute(status -> {
+                    synchronized (this) {
+                        // First read fixes the snapshot; the sales read below are exactly those whose
+                        // events were delivered before it, and any delivered later are collected
+                        Long pending = jdbcTemplate.queryForObject(OutboxRelay.PENDING_COUNT_SQL, Long.class);
+                        if (pending != null && pending > 0) {
+                            return null;
+                        }
+                        salesDuringRebuild = new ArrayList<>();
+                    }
+                    return orderItemRepository.findDirectSalesSince(LocalDateTime.now().minusDays(windowDays));
+                });
+                if (sales != null) {
+                    Ranking rebuilt = new Ranking();
+                    for (ProductSaleDto sale : sales) {
+                        rebuilt.add(sale.getProductId(), sale.getCategoryId(), sale.getOrderDate(), sale.getQuantity());
+                    }
+                    synchronized (this) {
+                        for (ProductSaleDto sale : salesDuringRebuild) {
+                            rebuilt.recordSale(sale.getProductId(), sale.getCategoryId(), sale.getOrderDate(), sale.getQuantity());
+                        }
+                        ranking = rebuilt;
+                    }
+                    System.out.println("Product ranking rebuilt with " + rebuilt.entries.size() + " products");
+                    return;
+                }
+            } finally {
+                synchronized (this) {
+                    salesDuringRebuild = null;
+                }
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        System.err.println("Skipped product ranking rebuild: order events are still pending");
+    }
+
+    public synchronized void recordSale(Long productId, Long categoryId, LocalDateTime soldAt, int quantity) {
+        ranking.recordSale(productId, categoryId, soldAt, quantity);
+        if (salesDuringRebuild != null) {
+            salesDuringRebuild.add(new ProductSaleDto(productId, categoryId, soldAt, quantity));
+        }
+    }
+
+    public synchronized List<Long> topProducts(int k) {
+        return take(ranking.global, k);
+    }
+
+    public synchronized List<Long> topProductsInCategory(Long categoryId, int k) {
+        TreeSet<Entry> ranked = ranking.byCategory.get(categoryId);
+        return ranked == null ? new ArrayList<>() : take(ranked, k);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static List<Long> take(TreeSet<Entry> ranked, int k) {
+        List<Long> ids = new ArrayList<>(k);
+        Iterator<Entry> it = ranked.iterator();
+        while (it.hasNext() && ids.size() < k) {
+            ids.add(it.next().productId);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,597 @@
+package com.cdac.service;
+
+import com.cdac.dto.ProductSummaryDto;
+import com.cdac.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, description, sub-category name
+ * and vendor shop name, ranked with BM25.
+ *
+ * The index is rebuilt from the database when the application starts and is
+ * kept current by ProductService as products are added, updated and deleted.
+ * A rebuild fills a fresh index off to the side and swaps it in at the end,
+ * replaying the changes made meanwhile, so searches never see a partial index.
+ *
+ * Each product gets an int ordinal when it is indexed, and postings are
+ * ordinal-sorted int arrays. Search walks them in step (document at a time)
+ * with max-score pruning: once the top "limit" hits are known, terms whose
+ * combined best possible score cannot beat the weakest hit are only probed
+ * for documents the other terms found, instead of being scanned, and runs of
+ * postings whose per-block bounds cannot beat it are skipped whole.
+ *
+ * An update gives the product a new ordinal and a removal leaves its postings
+ * in place with a zero frequency, so blocks never shift and only the block
+ * holding the change is recomputed. Once dead ordinals outnumber live ones the
+ * index is rebuilt in the background, which compacts them away.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_BOOST = 2; // name terms count twice towards term frequency
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final int BLOCK_SIZE = 128;
+    private static final int COMPACTION_MIN_DEAD = 10_000;
+    // Bounds are computed differently from scores and can round an ulp below a tied
+    // score; the slack keeps such ties from being skipped
+    private static final double BOUND_SLACK = 1 + 1e-9;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    @Qualifier("searchIndexExecutor")
+    private ThreadPoolTaskExecutor searchIndexExecutor;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+    // Changes made while a rebuild runs, replayed onto the new index; null terms mean removed
+    private Map<Long, Map<String, Integer>> pendingChanges;
+    private boolean compactionRequested;
+
+    // Ordinal-sorted documents of one term with their term frequencies. For every
+    // BLOCK_SIZE postings it keeps the highest BM25 term weight (without idf) and the
+    // average document length it was computed with; see blockBound. Removed postings
+    // stay with frequency 0, which scores nothing, until the index is rebuilt
+    private static final class Postings {
+        int[] ordinals = new int[2];
+        int[] frequencies = new int[2];
+        int size;
+        int live; // postings not removed, i.e. the document frequency
+        double[] blockWeight = new double[1];
+        double[] blockAverageLength = new double[1];
+
+        void append(int ordinal, int frequency, int length, double averageLength) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int block = size / BLOCK_SIZE;
+            if (block == blockWeight.length) {
+                blockWeight = Arrays.copyOf(blockWeight, block * 2);
+                blockAverageLength = Arrays.copyOf(blockAverageLength, block * 2);
+            }
+            if (size % BLOCK_SIZE == 0) {
+                blockWeight[block] = 0;
+                blockAverageLength[block] = averageLength;
+            }
+            blockWeight[block] = Math.max(blockWeight[block], weight(frequency, length, blockAverageLength[block]));
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+
+        void remove(int ordinal, int[] lengths, double averageLength) {
+            int i = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (i < 0 || frequencies[i] == 0) {
+                return;
+            }
+            frequencies[i] = 0;
+            live--;
+            int block = i / BLOCK_SIZE;
+            double maxWeight = 0;
+            for (int j = block * BLOCK_SIZE; j < Math.min(size, (block + 1) * BLOCK_SIZE); j++) {
+                maxWeight = Math.max(maxWeight, weight(frequencies[j], lengths[ordinals[j]], averageLength));
+            }
+            blockWeight[block] = maxWeight;
+            blockAverageLength[block] = averageLength;
+        }
+
+        // Best score any posting of the term can add
+        double bound(double idf, double averageLength) {
+            double bound = 0;
+            for (int i = 0; i < size; i += BLOCK_SIZE) {
+                bound = Math.max(bound, blockBound(i, idf, averageLength));
+            }
+            return bound;
+        }
+
+        // Last ordinal of the block holding position i
+        int blockEnd(int i) {
+            return ordinals[Math.min(size, (i / BLOCK_SIZE + 1) * BLOCK_SIZE) - 1];
+        }
+
+        // First position at or after "from" whose ordinal is >= target. Gallops first,
+        // since cursors mostly move a short way
+        int advance(int from, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ordinals[high] < target) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            int i = Arrays.binarySearch(ordinals, low, Math.min(high + 1, size), target);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        // Best score a posting in the block holding position i can add. The weights were
+        // computed with an older average length; if the average has grown since, a
+        // weight can have grown by at most the same ratio
+        double blockBound(int i, double idf, double averageLength) {
+            int block = i / BLOCK_SIZE;
+            return idf * blockWeight[block] * Math.max(1, averageLength / blockAverageLength[block]) * BOUND_SLACK;
+        }
+    }
+
+    private static final class Document {
+        final int ordinal;
+        final String[] terms;
+
+        Document(int ordinal, String[] terms) {
+            this.ordinal = ordinal;
+            this.terms = terms;
+        }
+    }
+
+    private static final class Index {
+        final Map<String, Postings> postings = new HashMap<>();
+        final Map<Long, Document> documents = new HashMap<>();
+        // Indexed by ordinal. Ordinals are handed out in increasing order so postings
+        // stay sorted by appending; an updated product gets a new one and the old one
+        // stays dead until the next rebuild
+        long[] productIds = new long[1024];
+        int[] lengths = new int[1024];
+        int nextOrdinal;
+        int deadOrdinals;
+        long totalLength;
+
+        void put(Long productId, Map<String, Integer> terms) {
+            remove(productId);
+            int ordinal = nextOrdinal++;
+            if (ordinal == productIds.length) {
+                productIds = Arrays.copyOf(productIds, ordinal * 2);
+                lengths = Arrays.copyOf(lengths, ordinal * 2);
+            }
+            int length = documentLength(terms);
+            productIds[ordinal] = productId;
+            lengths[ordinal] = length;
+            totalLength += length;
+            double averageLength = averageLength();
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new Postings())
+                        .append(ordinal, term.getValue(), length, averageLength);
+            }
+            documents.put(productId, new Document(ordinal, terms.keySet().toArray(new String[0])));
+        }
+
+        double averageLength() {
+            return documents.isEmpty() ? 1 : Math.max(1, (double) totalLength / documents.size());
+        }
+
+        boolean needsCompaction() {
+            return deadOrdinals > Math.max(COMPACTION_MIN_DEAD, documents.size());
+        }
+
+        void remove(Long productId) {
+            Document document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            totalLength -= lengths[document.ordinal];
+            deadOrdinals++;
+            double averageLength = averageLength();
+            for (String term : document.terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings != null) {
+                    termPostings.remove(document.ordinal, lengths, averageLength);
+                    if (termPostings.live == 0) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    // Min-heap of the best hits so far; the root is the weakest
+    private static final class TopHits {
+        final int[] ordinals;
+        final double[] scores;
+        final long[] productIds;
+        int size;
+
+        TopHits(int capacity, long[] productIds) {
+            this.ordinals = new int[capacity];
+            this.scores = new double[capacity];
+            this.productIds = productIds;
+        }
+
+        // Score a hit must reach to get in; ties go to the lower product id
+        double threshold() {
+            return size < ordinals.length ? Double.NEGATIVE_INFINITY : scores[0];
+        }
+
+        boolean offer(int ordinal, double score) {
+            if (size < ordinals.length) {
+                ordinals[size] = ordinal;
+                scores[size] = score;
+                siftUp(size++);
+                return true;
+            }
+            if (!ranksBelow(ordinals[0], scores[0], ordinal, score)) {
+                return false;
+            }
+            ordinals[0] = ordinal;
+            scores[0] = score;
+            siftDown(0);
+            return true;
+        }
+
+        // Product ids, best first
+        List<Long> drain() {
+            Long[] ids = new Long[size];
+            while (size > 0) {
+                ids[size - 1] = productIds[ordinals[0]];
+                size--;
+                ordinals[0] = ordinals[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return Arrays.asList(ids);
+        }
+
+        private boolean ranksBelow(int ordinal, double score, int otherOrdinal, double otherScore) {
+            return score < otherScore
+                    || (score == otherScore && productIds[ordinal] > productIds[otherOrdinal]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!ranksBelow(ordinals[i], scores[i], ordinals[parent], scores[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int weakest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (ranksBelow(ordinals[child], scores[child], ordinals[weakest], scores[weakest])) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == i) {
+                    return;
+                }
+                swap(i, weakest);
+                i = weakest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int ordinal = ordinals[a];
+            ordinals[a] = ordinals[b];
+            ordinals[b] = ordinal;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        boolean complete = false;
+        try {
+            long afterId = 0;
+            while (true) {
+                List<ProductSummaryDto> batch = productRepository.findSummariesAfterId(afterId, Limit.of(REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                // Tokenizing dominates the rebuild, so do it in parallel
+                List<Map.Entry<Long, Map<String, Integer>>> analyzed = batch.parallelStream()
+                        .map(p -> Map.entry(p.getId(), analyze(p)))
+                        .toList();
+                for (Map.Entry<Long, Map<String, Integer>> doc : analyzed) {
+                    rebuilt.put(doc.getKey(), doc.getValue());
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    // These are at least as new as the rows the rebuild read
+                    for (Map.Entry<Long, Map<String, Integer>> change : pendingChanges.entrySet()) {
+                        rebuilt.remove(change.getKey());
+                        if (change.getValue() != null) {
+                            rebuilt.put(change.getKey(), change.getValue());
+                        }
+                    }
+                    index = rebuilt;
+                }
+                pendingChanges = null;
+                compactionRequested = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        System.out.println("Product search index built with " + size() + " products");
+    }
+
+    public void index(ProductSummaryDto product) {
+        Map<String, Integer> terms = analyze(product);
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            index.put(product.getId(), terms);
+            if (pendingChanges != null) {
+                pendingChanges.put(product.getId(), terms);
+            }
+            compact = requestCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            searchIndexExecutor.execute(this::rebuild);
+        }
+    }
+
+    public void remove(Long productId) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            index.remove(productId);
+            if (pendingChanges != null) {
+                pendingChanges.put(productId, null);
+            }
+            compact = requestCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            searchIndexExecutor.execute(this::rebuild);
+        }
+    }
+
+    // Caller must hold the write lock. True once per rebuild when dead ordinals call for one
+    private boolean requestCompaction() {
+        if (compactionRequested || pendingChanges != null || !index.needsCompaction()) {
+            return false;
+        }
+        compactionRequested = true;
+        return true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching products, highest score first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = index.documents.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = (double) index.totalLength / documentCount;
+
+            List<Postings> matched = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Postings termPostings = index.postings.get(term);
+                if (termPostings != null) {
+                    matched.add(termPostings);
+                }
+            }
+            int n = matched.size();
+            if (n == 0) {
+                return Collections.emptyList();
+            }
+
+            // Per term: idf and the best score it can add to any document, ordered by that bound
+            Postings[] terms = new Postings[n];
+            double[] idf = new double[n];
+            double[] bound = new double[n];
+            matched.sort(Comparator.comparingDouble(t -> t.bound(idf(t, documentCount), averageLength)));
+            for (int i = 0; i < n; i++) {
+                terms[i] = matched.get(i);
+                idf[i] = idf(terms[i], documentCount);
+                bound[i] = terms[i].bound(idf[i], averageLength);
+            }
+            // cumulative[i]: best total the terms 0..i can add together
+            double[] cumulative = new double[n];
+            for (int i = 0; i < n; i++) {
+                cumulative[i] = (i > 0 ? cumulative[i - 1] : 0) + bound[i];
+            }
+
+            double normBase = K1 * (1 - B);
+            double normPerLength = K1 * B / averageLength;
+            TopHits top = new TopHits(Math.min(limit, documentCount), index.productIds);
+            int[] lengths = index.lengths;
+            int[] cursor = new int[n];
+            // Hot-loop copies of the postings arrays
+            int[][] ordinals = new int[n][];
+            int[][] frequencies = new int[n][];
+            int[] sizes = new int[n];
+            for (int i = 0; i < n; i++) {
+                ordinals[i] = terms[i].ordinals;
+                frequencies[i] = terms[i].frequencies;
+                sizes[i] = terms[i].size;
+            }
+            // Terms below firstEssential cannot reach the threshold on their own, so no
+            // document is taken from them, they are only probed
+            int firstEssential = 0;
+            // The last block check passed for ordinals up to checkedUpTo at this threshold
+            int checkedUpTo = -1;
+            double checkedThreshold = Double.NEGATIVE_INFINITY;
+            while (true) {
+                int ordinal = Integer.MAX_VALUE;
+                for (int i = firstEssential; i < n; i++) {
+                    if (cursor[i] < sizes[i]) {
+                        ordinal = Math.min(ordinal, ordinals[i][cursor[i]]);
+                    }
+                }
+                if (ordinal == Integer.MAX_VALUE) {
+                    break;
+                }
+                // Skip ahead while the blocks the essential terms are at cannot beat the threshold
+                double threshold = top.threshold();
+                if (threshold > Double.NEGATIVE_INFINITY && (ordinal > checkedUpTo || threshold > checkedThreshold)) {
+                    double blockBound = firstEssential > 0 ? cumulative[firstEssential - 1] : 0;
+                    int skipTo = Integer.MAX_VALUE;
+                    for (int i = firstEssential; i < n; i++) {
+                        if (cursor[i] < terms[i].size) {
+                            blockBound += terms[i].blockBound(cursor[i], idf[i], averageLength);
+                            skipTo = Math.min(skipTo, terms[i].blockEnd(cursor[i]));
+                        }
+                    }
+                    if (blockBound < threshold) {
+                        for (int i = firstEssential; i < n; i++) {
+                            cursor[i] = terms[i].advance(cursor[i], skipTo + 1);
+                        }
+                        continue;
+                    }
+                    checkedUpTo = skipTo;
+                    checkedThreshold = threshold;
+                }
+                double lengthNorm = normBase + normPerLength * lengths[ordinal];
+                double score = 0;
+                for (int i = firstEssential; i < n; i++) {
+                    if (cursor[i] < sizes[i] && ordinals[i][cursor[i]] == ordinal) {
+                        int tf = frequencies[i][cursor[i]++];
+                        score += idf[i] * tf * (K1 + 1) / (tf + lengthNorm);
+                    }
+                }
+                boolean pruned = false;
+                for (int i = firstEssential - 1; i >= 0; i--) {
+                    if (score + cumulative[i] < threshold) {
+                        pruned = true;
+                        break;
+                    }
+                    cursor[i] = terms[i].advance(cursor[i], ordinal);
+                    if (cursor[i] < sizes[i] && ordinals[i][cursor[i]] == ordinal) {
+                        int tf = frequencies[i][cursor[i]];
+                        score += idf[i] * tf * (K1 + 1) / (tf + lengthNorm);
+                    }
+                }
+                // A zero score means every posting of the ordinal was removed
+                if (!pruned && score > 0 && top.offer(ordinal, score)) {
+                    while (firstEssential < n && cumulative[firstEssential] < top.threshold()) {
+                        firstEssential++;
+                    }
+                }
+            }
+            return top.drain();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double idf(Postings termPostings, int documentCount) {
+        int df = termPostings.live;
+        return Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+    }
+
+    // BM25 weight of a term occurring tf times in a document of the given length, before idf
+    private static double weight(int tf, int length, double averageLength) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static int documentLength(Map<String, Integer> terms) {
+        int length = 0;
+        for (int tf : terms.values()) {
+            length += tf;
+        }
+        return length;
+    }
+
+    private static Map<String, Integer> analyze(ProductSummaryDto product) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : tokenize(product.getName())) {
+            terms.merge(token, NAME_BOOST, Integer::sum);
+        }
+        for (String field : new String[] {product.getDescription(), product.getSubCategoryName(), product.getVendorShopName()}) {
+            for (String token : tokenize(field)) {
+                terms.merge(token, 1, Integer::sum);
+            }
+        }
+        return terms;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
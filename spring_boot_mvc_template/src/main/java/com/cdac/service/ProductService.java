@@ -1,5 +1,13 @@
 package com.cdac.service;
 
+import com.cdac.dto.FacetSearchResultDto;
+import com.cdac.dto.ProductAvailabilityDto;
+import com.cdac.dto.ProductListingDto;
+import com.cdac.dto.ProductListingPageDto;
+import com.cdac.dto.ProductPageDto;
+import com.cdac.dto.ProductSummaryDto;
+import com.cdac.dto.SubCategorySummaryDto;
+import com.cdac.dto.VendorSummaryDto;
 import com.cdac.entity.Product;
 import com.cdac.entity.SubCategory;
 import com.cdac.entity.Vendor;
@@ -7,6 +15,7 @@ import com.cdac.repository.ProductRepository;
 import com.cdac.repository.SubCategoryRepository;
 import com.cdac.repository.VendorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -17,7 +26,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -32,8 +48,26 @@ public class ProductService {
     @Autowired
     private VendorRepository vendorRepository;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private FacetIndexService facetIndexService;
+
+    @Autowired
+    private ProductRankingService productRankingService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
     private final String uploadDir = "uploads/products/";
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int FEATURED_COUNT = 10;
+
     public Product addProduct(String name, String description, BigDecimal price, int discount, 
                              int stockQuantity, Long subCategoryId, Long vendorId, MultipartFile image) {
         SubCategory subCategory = subCategoryRepository.findById(subCategoryId)
@@ -56,7 +90,10 @@ public class ProductService {
             product.setImageUrl(imagePath);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        indexProduct(toSummary(saved));
+        generateImageVariants(saved);
+        return saved;
     }
 
     public Product updateProduct(Long id, String name, String description, BigDecimal price, 
@@ -80,11 +117,55 @@ public class ProductService {
             if (product.getImageUrl() != null) {
                 deleteImage(product.getImageUrl());
             }
+            imageVariantService.delete(product.getImageVariants());
+            product.setImageVariants(null);
             String imagePath = saveImage(image);
             product.setImageUrl(imagePath);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        indexProduct(toSummary(saved));
+        if (image != null && !image.isEmpty()) {
+            generateImageVariants(saved);
+        }
+        return saved;
+    }
+
+    private void generateImageVariants(Product product) {
+        Long id = product.getId();
+        String imageUrl = product.getImageUrl();
+        imageVariantService.generateLater(imageUrl, variants -> {
+            if (productRepository.updateImageVariants(id, imageUrl, variants) == 0) {
+                // The product was deleted or given another image in the meantime
+                imageVariantService.delete(variants);
+            }
+        });
+    }
+
+    /**
+     * Re-reads the given products and brings the search and facet indexes up to date,
+     * for writes that bypass addProduct/updateProduct.
+     */
+    public void refreshIndexes(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        for (ProductSummaryDto summary : productRepository.findSummariesByIdIn(productIds)) {
+            indexProduct(summary);
+        }
+    }
+
+    private void indexProduct(ProductSummaryDto summary) {
+        productSearchService.index(summary);
+        facetIndexService.index(summary);
+    }
+
+    private ProductSummaryDto toSummary(Product product) {
+        return new ProductSummaryDto(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getDiscount(), product.getStockQuantity(), product.getImageUrl(),
+                product.getImageVariants(),
+                product.getSubCategory().getId(), product.getSubCategory().getName(),
+                product.getVendor().getId(), product.getVendor().getShopName());
     }
 
     private String saveImage(MultipartFile file) {
@@ -127,6 +208,100 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    /**
+     * Returns one page of the catalog using keyset pagination.
+     * Supported sorts are "id", "price" and "newest"; the cursor is the opaque
+     * token returned as nextCursor by the previous page.
+     */
+    public ProductPageDto getProductPage(String sort, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<ProductSummaryDto> rows;
+
+        switch (sort) {
+            case "id" -> {
+                long afterId = cursor == null ? 0L : Long.parseLong(decodeCursor(cursor, sort, 1)[0]);
+                rows = productRepository.findSummariesAfterId(afterId, fetchLimit);
+            }
+            case "newest" -> {
+                long beforeId = cursor == null ? Long.MAX_VALUE : Long.parseLong(decodeCursor(cursor, sort, 1)[0]);
+                rows = productRepository.findSummariesBeforeId(beforeId, fetchLimit);
+            }
+            case "price" -> {
+                if (cursor == null) {
+                    rows = productRepository.findSummariesOrderByPrice(fetchLimit);
+                } else {
+                    String[] position = decodeCursor(cursor, sort, 2);
+                    rows = productRepository.findSummariesAfterPrice(
+                            new BigDecimal(position[0]), Long.parseLong(position[1]), fetchLimit);
+                }
+            }
+            default -> throw new RuntimeException("Unsupported sort: " + sort);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummaryDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ProductSummaryDto last = items.get(items.size() - 1);
+            nextCursor = "price".equals(sort)
+                    ? CursorCodec.encode(sort, last.getPrice().toPlainString(), last.getId().toString())
+                    : CursorCodec.encode(sort, last.getId().toString());
+        }
+        return new ProductPageDto(items, nextCursor, hasMore);
+    }
+
+    public ProductListingPageDto getListingsByCategory(Long categoryId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterId = cursor == null ? 0L : Long.parseLong(decodeCursor(cursor, "id", 1)[0]);
+        return toListingPage(productRepository.findListingsByCategoryId(categoryId, afterId, Limit.of(pageSize + 1)), pageSize);
+    }
+
+    public ProductListingPageDto getListingsBySubCategory(Long subCategoryId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterId = cursor == null ? 0L : Long.parseLong(decodeCursor(cursor, "id", 1)[0]);
+        return toListingPage(productRepository.findListingsBySubCategoryId(subCategoryId, afterId, Limit.of(pageSize + 1)), pageSize);
+    }
+
+    // Three queries per page: the listing rows plus one lookup each for the distinct vendors and sub-categories
+    private ProductListingPageDto toListingPage(List<ProductListingDto> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductListingDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Set<Long> vendorIds = new HashSet<>();
+        Set<Long> subCategoryIds = new HashSet<>();
+        for (ProductListingDto item : items) {
+            vendorIds.add(item.getVendorId());
+            subCategoryIds.add(item.getSubCategoryId());
+        }
+        Map<Long, VendorSummaryDto> vendors = new HashMap<>();
+        Map<Long, SubCategorySummaryDto> subCategories = new HashMap<>();
+        if (!items.isEmpty()) {
+            vendorRepository.findSummariesByIdIn(vendorIds).forEach(v -> vendors.put(v.getId(), v));
+            subCategoryRepository.findSummariesByIdIn(subCategoryIds).forEach(sc -> subCategories.put(sc.getId(), sc));
+        }
+
+        String nextCursor = hasMore ? CursorCodec.encode("id", items.get(items.size() - 1).getId().toString()) : null;
+        return new ProductListingPageDto(items, vendors, subCategories, nextCursor, hasMore);
+    }
+
+    private String[] decodeCursor(String cursor, String sort, int positionParts) {
+        String[] parts = CursorCodec.decode(cursor, positionParts + 1);
+        if (!sort.equals(parts[0])) {
+            throw new RuntimeException("Cursor does not match sort: " + sort);
+        }
+        return Arrays.copyOfRange(parts, 1, parts.length);
+    }
+
+    public ProductAvailabilityDto getAvailability(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        int reserved = inventoryReservationService.reserved(productId);
+        return new ProductAvailabilityDto(productId, product.getStockQuantity(), reserved,
+                Math.max(0, product.getStockQuantity() - reserved));
+    }
+
     public List<Product> getProductsByVendor(Long vendorId) {
         return productRepository.findByVendorId(vendorId);
     }
@@ -139,8 +314,38 @@ public class ProductService {
         return productRepository.findBySubCategoryCategoryId(categoryId);
     }
 
-    public List<Product> getFeaturedProducts() {
-        return productRepository.findTop10ByOrderByIdDesc();
+    /**
+     * Best sellers by decayed sales volume, topped up with the newest products
+     * while there is not enough order history.
+     */
+    public List<ProductSummaryDto> getFeaturedProducts() {
+        List<ProductSummaryDto> featured = loadSummariesInOrder(productRankingService.topProducts(FEATURED_COUNT));
+        if (featured.size() < FEATURED_COUNT) {
+            fillFeatured(featured, productRepository.findSummariesBeforeId(Long.MAX_VALUE, Limit.of(FEATURED_COUNT * 2)));
+        }
+        return featured;
+    }
+
+    public List<ProductSummaryDto> getFeaturedProductsByCategory(Long categoryId) {
+        List<ProductSummaryDto> featured = loadSummariesInOrder(
+                productRankingService.topProductsInCategory(categoryId, FEATURED_COUNT));
+        if (featured.size() < FEATURED_COUNT) {
+            fillFeatured(featured, productRepository.findNewestSummariesByCategoryId(categoryId, Limit.of(FEATURED_COUNT * 2)));
+        }
+        return featured;
+    }
+
+    private void fillFeatured(List<ProductSummaryDto> featured, List<ProductSummaryDto> candidates) {
+        Set<Long> present = new HashSet<>();
+        featured.forEach(p -> present.add(p.getId()));
+        for (ProductSummaryDto candidate : candidates) {
+            if (featured.size() >= FEATURED_COUNT) {
+                break;
+            }
+            if (present.add(candidate.getId())) {
+                featured.add(candidate);
+            }
+        }
     }
 
     public void deleteProduct(Long id) {
@@ -151,7 +356,49 @@ public class ProductService {
         if (product.getImageUrl() != null) {
             deleteImage(product.getImageUrl());
         }
+        imageVariantService.delete(product.getImageVariants());
         
         productRepository.deleteById(id);
+        productSearchService.remove(id);
+        facetIndexService.remove(id);
+    }
+
+    /**
+     * Full-text search over the in-memory index; results keep the index ranking.
+     */
+    public List<ProductSummaryDto> searchProducts(String query, int limit) {
+        List<Long> rankedIds = productSearchService.search(query, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return loadSummariesInOrder(rankedIds);
+    }
+
+    /**
+     * Filters the catalog by facet selections and returns live counts for every facet value.
+     * Matches are paged in product id order, starting after afterId.
+     */
+    public FacetSearchResultDto filterProducts(Map<String, Set<String>> selections, Long afterId, int limit) {
+        FacetIndexService.Result result = facetIndexService.query(selections, afterId,
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        List<Long> ids = result.getProductIds();
+        Long nextAfterId = result.isHasMore() ? ids.get(ids.size() - 1) : null;
+        return new FacetSearchResultDto(result.getTotal(), loadSummariesInOrder(ids), result.getFacets(),
+                nextAfterId, result.isHasMore());
+    }
+
+    private List<ProductSummaryDto> loadSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductSummaryDto> byId = new HashMap<>();
+        for (ProductSummaryDto summary : productRepository.findSummariesByIdIn(ids)) {
+            byId.put(summary.getId(), summary);
+        }
+        List<ProductSummaryDto> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductSummaryDto summary = byId.get(id);
+            if (summary != null) { // may have been removed by a bulk vendor delete
+                results.add(summary);
+            }
+        }
+        return results;
     }
 }
@@ -0,0 +1,246 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderEvent;
+import com.cdac.dto.RevenuePointDto;
+import com.cdac.entity.OrderStatus;
+import com.cdac.repository.RevenueRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Daily order counts and values per (vendor, shopkeeper, status) in revenue_rollup.
+ *
+ * Order events add to the day the order was placed on; a status change moves
+ * the order between two status rows of that day. Trend queries sum the daily
+ * rows of a range, so their cost depends on the number of days rather than
+ * the number of orders.
+ *
+ * A nightly job rebuilds the last revenue.rollup.reconcile-days days from the
+ * order tables to correct drift from dropped or replayed events. It rebuilds
+ * only from a snapshot with no undelivered events, otherwise an order in the
+ * snapshot would be counted again when its event arrives, and it holds the
+ * monitor event handling uses so no event lands between its read and write.
+ */
+@Service
+public class RevenueRollupService implements OrderEventSubscriber {
+
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    public static final String MONTH = "month";
+
+    private static final int MAX_RANGE_DAYS = 731;
+    private static final int RECONCILE_CHUNK_DAYS = 31;
+    private static final int RECONCILE_ATTEMPTS = 30;
+    private static final int REMEMBERED_EVENTS = 10_000;
+
+    private static final String UPSERT_SQL = "INSERT INTO revenue_rollup "
+            + "(vendor_id, shopkeeper_id, order_day, status, order_count, total_amount) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), "
+            + "total_amount = total_amount + VALUES(total_amount)";
+    private static final String INSERT_SQL = "INSERT INTO revenue_rollup "
+            + "(vendor_id, shopkeeper_id, order_day, status, order_count, total_amount) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_RANGE_SQL = "DELETE FROM revenue_rollup WHERE order_day >= ? AND order_day < ?";
+    private static final String AGGREGATE_RANGE_SQL = "SELECT vendor_id, shopkeeper_id, CAST(order_date AS DATE) AS order_day, "
+            + "status, COUNT(*), SUM(total_amount) FROM ("
+            + "SELECT vendor_id, shopkeeper_id, order_date, status, total_amount FROM orders "
+            + "WHERE order_date >= ? AND order_date < ? "
+            + "UNION ALL SELECT vendor_id, shopkeeper_id, order_date, status, total_amount FROM orders_archive "
+            + "WHERE order_date >= ? AND order_date < ?) o "
+            + "GROUP BY vendor_id, shopkeeper_id, CAST(order_date AS DATE), status";
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${revenue.rollup.reconcile-days:90}")
+    private int reconcileDays;
+
+    private final Map<Long, Boolean> recentEventIds = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > REMEMBERED_EVENTS;
+        }
+    };
+
+    /**
+     * @param granularity day, week (starting Monday) or month
+     * @param status only orders currently in this status, or all orders if null
+     */
+    public List<RevenuePointDto> vendorTrend(Long vendorId, LocalDate from, LocalDate to, String granularity,
+                                             OrderStatus status) {
+        checkRange(from, to, granularity);
+        return bucket(revenueRollupRepository.sumDailyByVendorId(vendorId, from, to, statuses(status)),
+                from, to, granularity);
+    }
+
+    public List<RevenuePointDto> shopkeeperTrend(Long shopkeeperId, LocalDate from, LocalDate to, String granularity,
+                                                 OrderStatus status) {
+        checkRange(from, to, granularity);
+        return bucket(revenueRollupRepository.sumDailyByShopkeeperId(shopkeeperId, from, to, statuses(status)),
+                from, to, granularity);
+    }
+
+    @Override
+    public synchronized void onOrderEvent(OrderEvent event) {
+        if (event.getOrderDate() == null || recentEventIds.containsKey(event.getEventId())) {
+            return;
+        }
+        Date day = Date.valueOf(event.getOrderDate().toLocalDate());
+        BigDecimal amount = event.getTotalAmount() != null ? event.getTotalAmount() : BigDecimal.ZERO;
+        List<Object[]> deltas = new ArrayList<>(2);
+        if (OrderEvent.STATUS_CHANGED.equals(event.getType()) && event.getPreviousStatus() != null) {
+            deltas.add(new Object[]{event.getVendorId(), event.getShopkeeperId(), day,
+                    event.getPreviousStatus().name(), -1L, amount.negate()});
+        }
+        deltas.add(new Object[]{event.getVendorId(), event.getShopkeeperId(), day, event.getStatus().name(), 1L, amount});
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> jdbcTemplate.batchUpdate(UPSERT_SQL, deltas));
+        recentEventIds.put(event.getEventId(), Boolean.TRUE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (revenueRollupRepository.count() > 0) {
+            return;
+        }
+        Timestamp first = jdbcTemplate.queryForObject(
+                "SELECT MIN(order_date) FROM (SELECT MIN(order_date) AS order_date FROM orders "
+                        + "UNION ALL SELECT MIN(order_date) FROM orders_archive) o", Timestamp.class);
+        if (first != null) {
+            int days = reconcile(first.toLocalDateTime().toLocalDate(), LocalDate.now());
+            System.out.println("Built revenue rollups for " + days + " days");
+        }
+    }
+
+    @Scheduled(cron = "${revenue.rollup.reconcile-cron:0 0 3 * * *}")
+    public void reconcileRecent() {
+        LocalDate today = LocalDate.now();
+        int days = reconcile(today.minusDays(reconcileDays), today);
+        System.out.println("Reconciled revenue rollups for " + days + " days");
+    }
+
+    /**
+     * Rebuilds the rollups of [from, to] from the order tables, a month per transaction.
+     * Returns the number of days rebuilt; months that never reach a quiet outbox are skipped until the next run.
+     */
+    public int reconcile(LocalDate from, LocalDate to) {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        int rebuilt = 0;
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(RECONCILE_CHUNK_DAYS)) {
+            LocalDate end = start.plusDays(RECONCILE_CHUNK_DAYS).isAfter(to.plusDays(1))
+                    ? to.plusDays(1) : start.plusDays(RECONCILE_CHUNK_DAYS);
+            if (reconcileChunk(snapshot, start, end)) {
+                rebuilt += (int) ChronoUnit.DAYS.between(start, end);
+            } else {
+                System.err.println("Skipped revenue rollup reconciliation of " + start + " to " + end
+                        + ": order events are still pending");
+            }
+        }
+        return rebuilt;
+    }
+
+    private boolean reconcileChunk(TransactionTemplate snapshot, LocalDate start, LocalDate end) {
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS; attempt++) {
+            Boolean done;
+            synchronized (this) {
+                done = snapshot.execute(status -> {
+                    // First read fixes the snapshot; the aggregate below sees exactly the orders whose events are delivered
+                    Long pending = jdbcTemplate.queryForObject(OutboxRelay.PENDING_COUNT_SQL, Long.class);
+                    if (pending != null && pending > 0) {
+                        return false;
+                    }
+                    Timestamp startAt = Timestamp.valueOf(start.atStartOfDay());
+                    Timestamp endAt = Timestamp.valueOf(end.atStartOfDay());
+                    List<Object[]> rows = jdbcTemplate.query(AGGREGATE_RANGE_SQL, (rs, i) -> new Object[]{
+                            rs.getLong(1), rs.getLong(2), rs.getDate(3), rs.getString(4), rs.getLong(5), rs.getBigDecimal(6)
+                    }, startAt, endAt, startAt, endAt);
+                    jdbcTemplate.update(DELETE_RANGE_SQL, Date.valueOf(start), Date.valueOf(end));
+                    jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                    return true;
+                });
+            }
+            if (Boolean.TRUE.equals(done)) {
+                return true;
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to, String granularity) {
+        if (!DAY.equals(granularity) && !WEEK.equals(granularity) && !MONTH.equals(granularity)) {
+            throw new RuntimeException("Unsupported granularity: " + granularity);
+        }
+        if (from.isAfter(to)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private static Set<OrderStatus> statuses(OrderStatus status) {
+        return status != null ? EnumSet.of(status) : EnumSet.allOf(OrderStatus.class);
+    }
+
+    // Folds the daily sums into periods, including empty ones, so a chart gets one point per period
+    private static List<RevenuePointDto> bucket(List<RevenuePointDto> days, LocalDate from, LocalDate to,
+                                                String granularity) {
+        Map<LocalDate, RevenuePointDto> periods = new LinkedHashMap<>();
+        for (LocalDate period = periodStart(from, granularity); !period.isAfter(to); period = next(period, granularity)) {
+            periods.put(period, new RevenuePointDto(period, 0L, BigDecimal.ZERO));
+        }
+        for (RevenuePointDto day : days) {
+            RevenuePointDto point = periods.get(periodStart(day.getPeriodStart(), granularity));
+            point.setOrderCount(point.getOrderCount() + day.getOrderCount());
+            point.setTotalAmount(point.getTotalAmount().add(day.getTotalAmount()));
+        }
+        return new ArrayList<>(periods.values());
+    }
+
+    private static LocalDate periodStart(LocalDate day, String granularity) {
+        if (WEEK.equals(granularity)) {
+            return day.with(DayOfWeek.MONDAY);
+        }
+        return MONTH.equals(granularity) ? day.withDayOfMonth(1) : day;
+    }
+
+    private static LocalDate next(LocalDate period, String granularity) {
+        if (WEEK.equals(granularity)) {
+            return period.plusWeeks(1);
+        }
+        return MONTH.equals(granularity) ? period.plusMonths(1) : period.plusDays(1);
+    }
+}
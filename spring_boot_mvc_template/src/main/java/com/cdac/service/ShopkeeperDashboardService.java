@@ -1,37 +1,35 @@
 package com.cdac.service;
 
-import com.cdac.repository.OrderRepository;
+import com.cdac.dto.OrderTotalsDto;
+import com.cdac.dto.ShopkeeperDashboardSummaryDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class ShopkeeperDashboardService {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderTotalsService orderTotalsService;
 
     public BigDecimal getTotalSpend(Long shopkeeperId) {
-        BigDecimal spend = orderRepository.sumTotalAmountByShopkeeperId(shopkeeperId);
-        return spend != null ? spend : BigDecimal.ZERO;
+        return orderTotalsService.forShopkeeper(shopkeeperId).getTotalAmount();
     }
 
     public Long getTotalOrders(Long shopkeeperId) {
-        return orderRepository.countByShopkeeperId(shopkeeperId);
+        return orderTotalsService.forShopkeeper(shopkeeperId).getTotalOrders();
     }
 
     public Map<String, Long> getOrderStatusCounts(Long shopkeeperId) {
-        Map<String, Long> statusCounts = new HashMap<>();
-        // Assuming statuses: PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
-        String[] statuses = {"PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED"};
-        
-        for (String status : statuses) {
-            Long count = orderRepository.countByShopkeeperIdAndStatus(shopkeeperId, status);
-            statusCounts.put(status, count);
-        }
-        return statusCounts;
+        return orderTotalsService.forShopkeeper(shopkeeperId).getStatusCounts();
+    }
+
+    // Everything the shopkeeper dashboard shows, in one call
+    public ShopkeeperDashboardSummaryDto getSummary(Long shopkeeperId) {
+        OrderTotalsDto totals = orderTotalsService.forShopkeeper(shopkeeperId);
+        return new ShopkeeperDashboardSummaryDto(totals.getTotalAmount(), totals.getTotalOrders(),
+                totals.getStatusCounts());
     }
 }
@@ -0,0 +1,142 @@
+package com.cdac.service;
+
+import com.cdac.dto.CategorySalesDto;
+import com.cdac.dto.MonthlySpendDto;
+import com.cdac.dto.OrderEvent;
+import com.cdac.dto.ProductSpendDto;
+import com.cdac.dto.SpendAnalyticsDto;
+import com.cdac.dto.VendorSpendDto;
+import com.cdac.repository.ArchivedOrderRepository;
+import com.cdac.repository.OrderItemRepository;
+import com.cdac.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Breaks a shopkeeper's spend down by vendor, category, month and product.
+ *
+ * Each breakdown is a grouped query on the live tables and one on the archive,
+ * merged here; all of them read one repeatable-read snapshot, so an order
+ * archived mid-load is counted once. Results are cached per shopkeeper until
+ * one of that shopkeeper's orders is created or changes status.
+ */
+@Service
+public class SpendAnalyticsService implements OrderEventSubscriber {
+
+    private static final int MONTHS = 12;
+    private static final int TOP_PRODUCTS = 10;
+    private static final int MAX_CACHED = 10_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, SpendAnalyticsDto> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SpendAnalyticsDto> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    // Shopkeepers being loaded -> whether one of their orders changed meanwhile
+    private final Map<Long, Boolean> loading = new HashMap<>();
+
+    public SpendAnalyticsDto getSpendAnalytics(Long shopkeeperId) {
+        synchronized (this) {
+            SpendAnalyticsDto cached = cache.get(shopkeeperId);
+            if (cached != null) {
+                return cached;
+            }
+            loading.putIfAbsent(shopkeeperId, Boolean.FALSE);
+        }
+        SpendAnalyticsDto analytics = load(shopkeeperId);
+        synchronized (this) {
+            // A result that may predate a change is served once but not kept
+            if (Boolean.FALSE.equals(loading.remove(shopkeeperId))) {
+                cache.put(shopkeeperId, analytics);
+            }
+        }
+        return analytics;
+    }
+
+    @Override
+    public synchronized void onOrderEvent(OrderEvent event) {
+        cache.remove(event.getShopkeeperId());
+        if (loading.containsKey(event.getShopkeeperId())) {
+            loading.put(event.getShopkeeperId(), Boolean.TRUE);
+        }
+    }
+
+    private SpendAnalyticsDto load(Long shopkeeperId) {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        // Live and archive reads share one snapshot, so an order archived between them is counted once
+        return snapshot.execute(status -> aggregate(shopkeeperId));
+    }
+
+    private SpendAnalyticsDto aggregate(Long shopkeeperId) {
+        List<VendorSpendDto> byVendor = merge(orderRepository.sumSpendByVendor(shopkeeperId),
+                archivedOrderRepository.sumSpendByVendor(shopkeeperId), VendorSpendDto::getVendorId,
+                (a, b) -> new VendorSpendDto(a.getVendorId(), a.getVendorShopName(),
+                        a.getOrderCount() + b.getOrderCount(), a.getAmount().add(b.getAmount())));
+        byVendor.sort(Comparator.comparing(VendorSpendDto::getAmount).reversed());
+
+        List<CategorySalesDto> byCategory = merge(orderItemRepository.sumSpendByCategory(shopkeeperId),
+                archivedOrderRepository.sumArchivedSpendByCategory(shopkeeperId), CategorySalesDto::getCategoryId,
+                (a, b) -> new CategorySalesDto(a.getCategoryId(), a.getCategoryName(),
+                        a.getUnitsSold() + b.getUnitsSold(), a.getRevenue().add(b.getRevenue())));
+        byCategory.sort(Comparator.comparing(CategorySalesDto::getRevenue).reversed());
+
+        LocalDate firstMonth = LocalDate.now().withDayOfMonth(1).minusMonths(MONTHS - 1);
+        List<MonthlySpendDto> byMonth = merge(
+                orderRepository.sumSpendByMonth(shopkeeperId, firstMonth.atStartOfDay()),
+                archivedOrderRepository.sumSpendByMonth(shopkeeperId, firstMonth.atStartOfDay()),
+                m -> m.getYear() * 100 + m.getMonth(),
+                (a, b) -> new MonthlySpendDto(a.getYear(), a.getMonth(),
+                        a.getOrderCount() + b.getOrderCount(), a.getAmount().add(b.getAmount())));
+        byMonth.sort(Comparator.comparing((MonthlySpendDto m) -> m.getYear()).thenComparing(MonthlySpendDto::getMonth));
+
+        List<ProductSpendDto> byProduct = merge(orderItemRepository.sumSpendByProduct(shopkeeperId),
+                archivedOrderRepository.sumArchivedSpendByProduct(shopkeeperId), ProductSpendDto::getProductId,
+                (a, b) -> new ProductSpendDto(a.getProductId(), a.getProductName(),
+                        a.getQuantity() + b.getQuantity(), a.getAmount().add(b.getAmount())));
+        byProduct.sort(Comparator.comparing(ProductSpendDto::getAmount).reversed());
+
+        return new SpendAnalyticsDto(byVendor, byCategory, byMonth,
+                new ArrayList<>(byProduct.subList(0, Math.min(TOP_PRODUCTS, byProduct.size()))));
+    }
+
+    // Combines the live and archived rows of the same group
+    private static <T, K> List<T> merge(List<T> live, List<T> archived, Function<T, K> key,
+                                        BinaryOperator<T> combine) {
+        Map<K, T> merged = new LinkedHashMap<>();
+        for (T row : live) {
+            merged.put(key.apply(row), row);
+        }
+        for (T row : archived) {
+            merged.merge(key.apply(row), row, combine);
+        }
+        return new ArrayList<>(merged.values());
+    }
+}
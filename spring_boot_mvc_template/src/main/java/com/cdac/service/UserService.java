@@ -33,6 +33,9 @@ public class UserService {
     
     @Autowired
     private com.cdac.repository.OrderRepository orderRepository;
+
+    @Autowired
+    private com.cdac.repository.ArchivedOrderRepository archivedOrderRepository;
     
     @Autowired
     private com.cdac.repository.ChatRoomRepository chatRoomRepository;
@@ -179,6 +182,8 @@ public class UserService {
         chatRoomRepository.deleteAll(chatRooms);
         
         // 3. Delete Orders
+        archivedOrderRepository.deleteItemsByVendorId(id);
+        archivedOrderRepository.deleteByVendorId(id);
         orderRepository.deleteByVendorId(id);
         
         // 4. Delete Products
@@ -214,6 +219,8 @@ public class UserService {
         chatRoomRepository.deleteAll(chatRooms);
         
         // 3. Delete Orders
+        archivedOrderRepository.deleteItemsByShopkeeperId(id);
+        archivedOrderRepository.deleteByShopkeeperId(id);
         orderRepository.deleteByShopkeeperId(id);
         
         // 4. Update User to remove reference
@@ -1,12 +1,12 @@
 package com.cdac.service;
 
-import com.cdac.repository.OrderRepository;
+import com.cdac.dto.OrderTotalsDto;
+import com.cdac.dto.VendorDashboardSummaryDto;
 import com.cdac.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -16,30 +16,28 @@ public class VendorDashboardService {
     private ProductRepository productRepository;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderTotalsService orderTotalsService;
 
     public Long getTotalProducts(Long vendorId) {
         return productRepository.countByVendorId(vendorId);
     }
 
     public BigDecimal getTotalIncome(Long vendorId) {
-        BigDecimal income = orderRepository.sumTotalAmountByVendorId(vendorId);
-        return income != null ? income : BigDecimal.ZERO;
+        return orderTotalsService.forVendor(vendorId).getTotalAmount();
     }
 
     public Long getTotalOrders(Long vendorId) {
-        return orderRepository.countByVendorId(vendorId);
+        return orderTotalsService.forVendor(vendorId).getTotalOrders();
     }
 
     public Map<String, Long> getOrderStatusCounts(Long vendorId) {
-        Map<String, Long> statusCounts = new HashMap<>();
-        // Assuming statuses: PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
-        String[] statuses = {"PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED"};
-        
-        for (String status : statuses) {
-            Long count = orderRepository.countByVendorIdAndStatus(vendorId, status);
-            statusCounts.put(status, count);
-        }
-        return statusCounts;
+        return orderTotalsService.forVendor(vendorId).getStatusCounts();
+    }
+
+    // Everything the vendor dashboard shows, in one call
+    public VendorDashboardSummaryDto getSummary(Long vendorId) {
+        OrderTotalsDto totals = orderTotalsService.forVendor(vendorId);
+        return new VendorDashboardSummaryDto(getTotalProducts(vendorId), totals.getTotalAmount(),
+                totals.getTotalOrders(), totals.getStatusCounts());
     }
 }
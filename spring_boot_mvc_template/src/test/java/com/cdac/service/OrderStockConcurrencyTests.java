@@ -0,0 +1,129 @@
+package com.cdac.service;
+
+import com.cdac.dto.OrderItemDto;
+import com.cdac.dto.OrderRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many shopkeepers checking out the same SKU at once must never take more than its stock,
+ * and no order line may take a zero or negative quantity.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStockConcurrencyTests {
+
+	private static final long VENDOR_ID = 9001;
+	private static final long SHOPKEEPER_ID = 9001;
+	private static final long PRODUCT_ID = 9001;
+	private static final int STOCK = 1000;
+	private static final int QUANTITY = 3;
+	private static final int THREADS = 16;
+	private static final int ATTEMPTS_PER_THREAD = 40;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seedHotProduct() {
+		jdbcTemplate.update("MERGE INTO users (id, email, password, name, role) KEY (id) VALUES "
+				+ "(9001, 'stock-vendor@test', 'x', 'Stock Vendor', 'VENDOR'), "
+				+ "(9002, 'stock-shop@test', 'x', 'Stock Shop', 'SHOPKEEPER')");
+		jdbcTemplate.update("MERGE INTO vendor (id, user_id, shop_name, joined_at) KEY (id) VALUES (?, 9001, 'Stock Vendor', NOW())", VENDOR_ID);
+		jdbcTemplate.update("MERGE INTO shopkeeper (id, user_id, shop_name, joined_at) KEY (id) VALUES (?, 9002, 'Stock Shop', NOW())", SHOPKEEPER_ID);
+		jdbcTemplate.update("MERGE INTO category (id, name) KEY (id) VALUES (9001, 'Stock Category')");
+		jdbcTemplate.update("MERGE INTO sub_category (id, name, category_id) KEY (id) VALUES (9001, 'Stock Sub', 9001)");
+		jdbcTemplate.update("MERGE INTO product (id, name, description, price, discount, stock_quantity, sub_category_id, vendor_id) "
+				+ "KEY (id) VALUES (?, 'Hot SKU', 'Contended product', 100, 0, ?, 9001, ?)", PRODUCT_ID, STOCK, VENDOR_ID);
+	}
+
+	@Test
+	void concurrentOrdersNeverOversellHotSku() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger successes = new AtomicInteger();
+		AtomicInteger rejections = new AtomicInteger();
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+					try {
+						orderService.placeOrder(hotSkuOrder(QUANTITY));
+						successes.incrementAndGet();
+					} catch (RuntimeException e) {
+						assertTrue(e.getMessage().startsWith("Insufficient stock"), e.getMessage());
+						rejections.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		long started = System.nanoTime();
+		start.countDown();
+		for (Future<?> worker : workers) {
+			worker.get(2, TimeUnit.MINUTES);
+		}
+		long elapsedNanos = System.nanoTime() - started;
+		pool.shutdown();
+
+		Integer finalStock = jdbcTemplate.queryForObject("SELECT stock_quantity FROM product WHERE id = ?", Integer.class, PRODUCT_ID);
+		Long orderedUnits = jdbcTemplate.queryForObject(
+				"SELECT COALESCE(SUM(quantity), 0) FROM order_item WHERE product_id = ?", Long.class, PRODUCT_ID);
+		assertEquals(STOCK / QUANTITY, successes.get());
+		assertEquals(THREADS * ATTEMPTS_PER_THREAD - STOCK / QUANTITY, rejections.get());
+		assertEquals(STOCK % QUANTITY, finalStock);
+		assertTrue(finalStock >= 0);
+		assertEquals((long) successes.get() * QUANTITY, orderedUnits);
+
+		System.out.printf("Hot SKU: %d orders placed, %d rejected, %d threads, %.0f attempts/s%n",
+				successes.get(), rejections.get(), THREADS,
+				THREADS * ATTEMPTS_PER_THREAD / (elapsedNanos / 1e9));
+	}
+
+	@Test
+	void nonPositiveLinesAreRejectedBeforeMerging() {
+		Long itemsBefore = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item WHERE product_id = ?", Long.class, PRODUCT_ID);
+		for (int[] quantities : new int[][]{{10, -5}, {0, 5}, {-1}}) {
+			RuntimeException e = assertThrows(RuntimeException.class, () -> orderService.placeOrder(hotSkuOrder(quantities)));
+			assertTrue(e.getMessage().startsWith("Invalid quantity"), e.getMessage());
+		}
+		assertEquals(STOCK, jdbcTemplate.queryForObject("SELECT stock_quantity FROM product WHERE id = ?", Integer.class, PRODUCT_ID));
+		assertEquals(itemsBefore, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item WHERE product_id = ?", Long.class, PRODUCT_ID));
+	}
+
+	private static OrderRequestDto hotSkuOrder(int... quantities) {
+		List<OrderItemDto> items = new ArrayList<>();
+		for (int quantity : quantities) {
+			OrderItemDto item = new OrderItemDto();
+			item.setProductId(PRODUCT_ID);
+			item.setQuantity(quantity);
+			items.add(item);
+		}
+		OrderRequestDto dto = new OrderRequestDto();
+		dto.setShopkeeperId(SHOPKEEPER_ID);
+		dto.setVendorId(VENDOR_ID);
+		dto.setItems(items);
+		return dto;
+	}
+}